@@ -1,6 +1,5 @@
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Iterator;
 
 /**
  * A class representing shared characteristics of animals,
@@ -12,22 +11,14 @@ import java.util.Iterator;
 
 public class Animal extends Species
 {
-    // Fields defining a special kind of animal, they can not be changed after initialization
-
-    // The age at which an animal can start to breed.
-    private final int breedingAge;
-    // The age to which an animal can live.
-    private final int maxAge;
-    // The maximum number of births at once.
-    private final int maxLitterSize;
+    // Fields defining a special kind of animal are kept in its SpeciesDefinition, they can not be changed after initialization
+
     // true if the animal's sex if female
     private final boolean isFemale;
-    // true if the animal hibernates during cold temperatures
-    private final boolean hibernates;
-    // true if the animal is active at night
-    private final boolean isNocturnal;
     // the number of steps that should pass until an animal in hibernation moves
     private static final int STAY_STEPS = 10;
+    // One reusable neighbourhood per thread, scanned at the start of each move.
+    private static final ThreadLocal<Neighbourhood> NEIGHBOURHOODS = ThreadLocal.withInitial(Neighbourhood::new);
 
     // Fields prone to change during the animal's life
 
@@ -41,45 +32,53 @@ public class Animal extends Species
     private int age;
 
     /**
-     * Create a new animal with given specifications. An animal can be created with random age (or start at age 0) and
+     * Create a new animal of the given species. An animal can be created with random age (or start at age 0) and
      * with a random foodLevel.
      *
+     * @param definition (SpeciesDefinition) the characteristics of the animal's species
      * @param field (Field) the field where the simulation takes place
      * @param location (Location) the Location at which the animal should appear
-     * @param name (String) the animal's name (its species' name)
-     * @param maximumTemperature (int) the maximum temperature the animal can survive to
-     * @param minimumTemperature (int) the minimum temperature an animal can survive to
-     * @param nutritionalValue (int) the animal's nutritional value
-     * @param reproductionProbability (double) the probability that the animal reproduces at each step after a given minimum breeding age
-     * @param maxAge (int) the animal's life expectancy
-     * @param breedingAge (int) the age at which animal can start to reproduce
-     * @param maxLitterSize (int) the maximum number of children the animal can have in one reproduction
      * @param randomAge (boolean) whether an animal should be created with a random age
-     * @param hibernates (boolean) whether an animal is able to hibernate
-     * @param isNocturnal (boolean) whether an animal is more active at night
      */
-    public Animal(Field field, Location location, String name, int maximumTemperature, int minimumTemperature, int nutritionalValue, double reproductionProbability, int maxAge, int breedingAge, int maxLitterSize, boolean randomAge, boolean hibernates, boolean isNocturnal)
+    public Animal(SpeciesDefinition definition, Field field, Location location, boolean randomAge)
     {
-        super(field, location, name, maximumTemperature, minimumTemperature, nutritionalValue, reproductionProbability);
+        super(definition, field, location);
 
-        this.breedingAge = breedingAge;
-        this.maxAge = maxAge;
-        this.maxLitterSize = maxLitterSize;
         this.isFemale = randomSex();
-        this.hibernates = hibernates;
-        this.isNocturnal = isNocturnal;
         // Default value is nutritionalValue to simulate the nutriment apart from the mother's milk/ other parental feeding.
         this.foodLevel = randomFoodLevel();
         inHibernation = false;
         hiberSteps = 0;
 
         if (randomAge) {
-            age = rand.nextInt(maxAge);
+            age = rand.nextInt(getMaxAge());
         } else {
             age = 0;
         }
     }
 
+    /**
+     * Recreate an animal saved in a checkpoint.
+     *
+     * @param definition (SpeciesDefinition) the characteristics of the animal's species
+     * @param field (Field) the field where the simulation takes place
+     * @param location (Location) the Location of the animal
+     * @param id (long) the identifier of the animal
+     * @param age (int) the animal's age
+     * @param foodLevel (int) the animal's food level
+     * @param hiberSteps (int) the animal's number of steps in hibernation
+     * @param flags (byte) combination of Checkpoint.FEMALE and Checkpoint.IN_HIBERNATION
+     */
+    public Animal(SpeciesDefinition definition, Field field, Location location, long id, int age, int foodLevel, int hiberSteps, byte flags)
+    {
+        super(definition, field, location, id, true);
+        this.isFemale = (flags & Checkpoint.FEMALE) != 0;
+        this.inHibernation = (flags & Checkpoint.IN_HIBERNATION) != 0;
+        this.age = age;
+        this.foodLevel = foodLevel;
+        this.hiberSteps = hiberSteps;
+    }
+
     /**
      * Imitate an animal's step by doing the following:
      * 1) increment the animal's age if a year has passed.
@@ -125,13 +124,13 @@ public class Animal extends Species
             // iii)
             else if (! survivesTemperature(temperature))
             {
-                setDead();
+                setDead(DeathCause.TEMPERATURE);
             }
             // iv)
             else
             {
                 // a)
-                if (isNight && isNocturnal) {
+                if (isNight && getIsNocturnal()) {
                     makeMove(newSpecies);
                 }
                 // b)
@@ -148,60 +147,48 @@ public class Animal extends Species
     /**
      * An animal's movement. It first tries to reproduce, then to eat if a plant is in one of the neighboring cells and finally to move
      * if an adjacent cell is available. If no adjacent cell is available, it dies of overcrowding.
+     * The neighboring cells are only looked at once, all these decisions are made from the same snapshot.
      *
      * @param newSpecies (List<Species>) A list to receive newly born animals.
      */
     protected void makeMove(List<Species> newSpecies)
     {
-        ArrayList<Animal> neighboringAnimalsList = getNeighboringAnimalsList();
+        Neighbourhood neighbourhood = scanNeighbourhood();
 
-        if (canReproduce(neighboringAnimalsList)) {
-            reproduce(newSpecies);
+        if (canReproduce(neighbourhood)) {
+            reproduce(newSpecies, neighbourhood);
         }
 
         // Eats if it is possible
         if (isNotFull()) {
-            findFoodAndEat();
+            findFoodAndEat(neighbourhood);
         }
 
         // Find a free location in adjacent cells
-        Location newLocation = getField().freeAdjacentLocation(getLocation());
+        Field field = getField();
+        int newCell = neighbourhood.takeFreeCell(field);
 
         // See if it was possible to move.
-        if(newLocation != null) {
-            setLocation(newLocation);
+        if(newCell >= 0) {
+            setLocation(field.getLocation(newCell));
         }
         else {
             // Overcrowding.
-            setDead();
+            setDead(DeathCause.OVERCROWDING);
         }
     }
 
     /**
-     * Returns a list of animals located in neighboring cells.
+     * Scan the cells around the animal. The returned snapshot is shared by all animals acting on the
+     * current thread, so it is only valid until the next call to this method.
      *
-     * @return (ArrayList) list of neighboring animals
+     * @return (Neighbourhood) The animal's neighbourhood.
      */
-    protected ArrayList<Animal> getNeighboringAnimalsList()
+    protected Neighbourhood scanNeighbourhood()
     {
-        Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        Iterator<Location> locationIterator = adjacent.iterator();
-
-        ArrayList<Animal> neighboringAnimals = new ArrayList<>();
-        while (locationIterator.hasNext())
-        {
-            Location where = locationIterator.next();
-            Object species = field.getObjectAt(where);
-
-            if (species instanceof Animal) {
-                Animal neighboringAnimal = (Animal) species;
-                if (neighboringAnimal.isAlive()) {
-                    neighboringAnimals.add(neighboringAnimal);
-                }
-            }
-        }
-        return neighboringAnimals;
+        Neighbourhood neighbourhood = NEIGHBOURHOODS.get();
+        neighbourhood.scan(getField(), getCellIndex());
+        return neighbourhood;
     }
 
     /**
@@ -210,8 +197,8 @@ public class Animal extends Species
     protected void incrementAge()
     {
         age++;
-        if(age > maxAge) {
-            setDead();
+        if(age > getMaxAge()) {
+            setDead(DeathCause.AGE);
         }
     }
 
@@ -222,7 +209,7 @@ public class Animal extends Species
     {
         foodLevel--;
         if(foodLevel <= 0) {
-            setDead();
+            setDead(DeathCause.HUNGER);
         }
     }
     
@@ -245,25 +232,20 @@ public class Animal extends Species
     /**
      * Look for plants adjacent to the current location.
      * Only the first plant is eaten.
+     *
+     * @param neighbourhood (Neighbourhood) The animal's neighbourhood.
      */
-    private void findFoodAndEat()
+    private void findFoodAndEat(Neighbourhood neighbourhood)
     {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
-
-        while(it.hasNext())
+        int plantCount = neighbourhood.getCount(Field.PLANT);
+        for (int i = 0; i < plantCount; i++)
         {
-            Location where = it.next();
-            Object species = field.getObjectAt(where); // change in Field
-            if(species instanceof Plant)
-            {
-                Plant plantSquare = (Plant) species;
-                if(plantSquare.isAlive()) {
-                    plantSquare.isEaten();
-                    incrementFoodLevel(plantSquare.getNutritionalValue());
-                    break;
-                }
+            Plant plantSquare = (Plant) field.getObjectAt(neighbourhood.getCell(Field.PLANT, i));
+            if(plantSquare != null && plantSquare.isAlive()) {
+                plantSquare.isEaten();
+                incrementFoodLevel(plantSquare.getNutritionalValue());
+                break;
             }
         }
     }
@@ -273,20 +255,36 @@ public class Animal extends Species
      *  and should go to the cel where the male is.
      *  Note: The task of reproducing is handled only by females so that the same reproduction can not happen twice in the same simulator step.
      *
-     * @param  neighboringAnimalsList (ArrayList<Animal>) Array List of the Animal objects located in neighboring cells.
+     * @param  neighbourhood (Neighbourhood) The animal's neighbourhood.
      * @return (boolean) if animal can reproduce.
      *
      */
-    protected boolean canReproduce(ArrayList<Animal> neighboringAnimalsList)
+    protected boolean canReproduce(Neighbourhood neighbourhood)
     {
         // task to reproduce is handed to women only so that the same reproduction does not happen twice
         if (this.isFemale)
         {
-            for (Animal neighbor : neighboringAnimalsList) {
-                if (!neighbor.isFemale && neighbor.getName().equals(this.getName())) {
-                    // The neighbor is a male of the same species
-                    return true;
-                }
+            return hasMaleNeighbor(neighbourhood, Field.PREY) || hasMaleNeighbor(neighbourhood, Field.PREDATOR);
+        }
+        return false;
+    }
+
+    /**
+     * Check if one of the neighboring animals of the given kind is a male of the same species.
+     *
+     * @param  neighbourhood (Neighbourhood) The animal's neighbourhood.
+     * @param  kind (byte) The kind of neighbors to look at, Field.PREY or Field.PREDATOR.
+     * @return (boolean) true if such a male was found.
+     */
+    private boolean hasMaleNeighbor(Neighbourhood neighbourhood, byte kind)
+    {
+        Field field = getField();
+        int count = neighbourhood.getCount(kind);
+        for (int i = 0; i < count; i++) {
+            Animal neighbor = (Animal) field.getObjectAt(neighbourhood.getCell(kind, i));
+            if (neighbor != null && neighbor.isAlive() && !neighbor.isFemale && neighbor.getSpeciesId() == this.getSpeciesId()) {
+                // The neighbor is a male of the same species
+                return true;
             }
         }
         return false;
@@ -299,20 +297,53 @@ public class Animal extends Species
      * @param  speciesInSimulation (List<Species>) List of Species objects in the simulation for the newborns to be added to it.
      */
     protected void reproduce(List<Species> speciesInSimulation)
+    {
+        if (getField() != null) {
+            reproduce(speciesInSimulation, scanNeighbourhood());
+        }
+    }
+
+    /**
+     * Creates the appropriate number of animals of the same species in the free cells of the given neighbourhood.
+     *
+     * @param  speciesInSimulation (List<Species>) List of Species objects in the simulation for the newborns to be added to it.
+     * @param  neighbourhood (Neighbourhood) The animal's neighbourhood, the cells used by the newborns are taken from it.
+     */
+    protected void reproduce(List<Species> speciesInSimulation, Neighbourhood neighbourhood)
     {
         Field field = getField();
         if (field != null)
         {
-            List<Location> free = field.getFreeAdjacentLocations(getLocation());
             int births = numberOfBirths();
-            for(int b = 0; b < births && free.size() > 0; b++) {
-                Location loc = free.remove(0);
-                Animal young = new Animal(field, loc, getName(), getMaximumTemperature(), getMinimumTemperature(), getNutritionalValue(), getReproductionProbability(), maxAge, breedingAge, maxLitterSize,false, hibernates, isNocturnal);
+            for(int b = 0; b < births; b++) {
+                int cell = neighbourhood.takeFreeCell(field);
+                if (cell < 0) {
+                    break;
+                }
+                Location loc = field.getLocation(cell);
+                Animal young = new Animal(getDefinition(), field, loc, false);
                 speciesInSimulation.add(young);
             }
         }
     }
 
+    /**
+     * Write the record of the animal to a checkpoint.
+     *
+     * @param buffer (ByteBuffer) The checkpoint.
+     */
+    void writeState(ByteBuffer buffer)
+    {
+        byte flags = 0;
+        if (isFemale) {
+            flags |= Checkpoint.FEMALE;
+        }
+        if (inHibernation) {
+            flags |= Checkpoint.IN_HIBERNATION;
+        }
+        Checkpoint.putAgent(buffer, getSpeciesId(), getCellIndex(), getIndividualId(), age, foodLevel, hiberSteps, flags);
+    }
+
     /**
      * Returns a random boolean to randomize the sex of newborns.
      *
@@ -320,7 +351,7 @@ public class Animal extends Species
      */
     private boolean randomSex()
     {
-        return Math.random() <= 0.5;
+        return rand.nextDouble() <= 0.5;
     }
     
     /**
@@ -343,7 +374,7 @@ public class Animal extends Species
     {
         int births = 0;
         if(canGiveBirth() && rand.nextDouble() <= getReproductionProbability()) {
-            births = rand.nextInt(maxLitterSize) + 1;
+            births = rand.nextInt(getMaxLitterSize()) + 1;
         }
         return births;
     }
@@ -353,7 +384,7 @@ public class Animal extends Species
      */
     protected boolean canGiveBirth()
     {
-        return age >= breedingAge;
+        return age >= getBreedingAge();
     }
 
     /**
@@ -367,7 +398,7 @@ public class Animal extends Species
      */
     protected void checkHibernation(int currentTemperature)
     {
-        if (hibernates && currentTemperature <= getMinimumTemperature() + 5)  {
+        if (getHibernates() && currentTemperature <= getMinimumTemperature() + 5)  {
             inHibernation = true;
         }
         else {
@@ -381,7 +412,7 @@ public class Animal extends Species
      */
     protected int getMaxAge ()
     {
-        return maxAge;
+        return getDefinition().getMaxAge();
     }
 
     /**
@@ -389,7 +420,7 @@ public class Animal extends Species
      */
     protected int getBreedingAge ()
     {
-        return breedingAge;
+        return getDefinition().getBreedingAge();
     }
 
     /**
@@ -397,7 +428,7 @@ public class Animal extends Species
      */
     protected int getMaxLitterSize ()
     {
-        return maxLitterSize;
+        return getDefinition().getMaxLitterSize();
     }
 
     /**
@@ -405,7 +436,7 @@ public class Animal extends Species
      */
     protected boolean getHibernates()
     {
-        return hibernates;
+        return getDefinition().getHibernates();
     }
 
     /**
@@ -413,7 +444,7 @@ public class Animal extends Species
      */
     protected boolean getIsNocturnal()
     {
-        return isNocturnal;
+        return getDefinition().getIsNocturnal();
     }
 
     /**
@@ -426,4 +457,11 @@ public class Animal extends Species
         foodLevel += value;
     }
 
+    /**
+     * @return (byte) Field.PREY, the kind of animals that are not predators.
+     */
+    public byte getKind()
+    {
+        return Field.PREY;
+    }
 }
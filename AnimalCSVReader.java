@@ -119,6 +119,18 @@ public class AnimalCSVReader extends CSVReader
         return FILE_NAME;
     }
 
+    /**
+     * Build the definition of the animal whose data was last read. The definition is shared by
+     * every individual of this animal's species.
+     *
+     * @param id (int) The identifier to give to the species.
+     * @return (SpeciesDefinition) The definition of the animal's species.
+     */
+    public SpeciesDefinition createDefinition(int id)
+    {
+        return new SpeciesDefinition(id, name, isPredator, maximumTemperature, minimumTemperature, nutritionalValue, breedingProbability, maximumAge, breedingAge, maxLitterSize, hibernates, isNocturnal, strength);
+    }
+
     /**
      * @return (String) The animal's name.
      */
@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Writes the series of a simulation as a compact binary file, column by column. All numbers are
+ * big-endian, as read by DataInputStream.
+ *
+ * The header is:
+ *     int     MAGIC ("POPS")
+ *     short   VERSION
+ *     short   the number of seasons, then for each: short length and UTF-8 bytes of its name
+ *     short   the number of species, then for each: short length and UTF-8 bytes of its name
+ * It is followed by blocks of rows until the end of the file. A block is:
+ *     int     the number of rows n
+ *     int[n]  the steps
+ *     byte[n] the seasons, as indexes into the seasons of the header (-1 if unknown)
+ *     int[n]  the temperatures
+ *     int[n]  the counts of each species, in the order of the header
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class BinarySeriesWriter extends SeriesWriter
+{
+    // The first bytes of the file.
+    public static final int MAGIC = 0x504F5053;
+    // The version of the format.
+    public static final short VERSION = 1;
+
+    // The buffer the blocks are encoded into, grown as needed and reused.
+    private ByteBuffer buffer;
+
+    /**
+     * Create the file, replacing it if it exists.
+     *
+     * @param path (Path) The file to write.
+     * @throws IOException If the file can not be created.
+     */
+    public BinarySeriesWriter(Path path) throws IOException
+    {
+        super(path);
+        buffer = ByteBuffer.allocateDirect(0);
+    }
+
+    /**
+     * Write the magic number, the version and the names of the seasons and species.
+     *
+     * @param speciesNames (String[]) The names of the columns of counts.
+     * @throws IOException If the header could not be written.
+     */
+    protected void writeHeader(String[] speciesNames) throws IOException
+    {
+        ensureCapacity(8 + namesSize(SEASONS) + namesSize(speciesNames));
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        putNames(SEASONS);
+        putNames(speciesNames);
+        buffer.flip();
+        write(buffer);
+    }
+
+    /**
+     * Write the rows of a chunk as a block, column by column.
+     *
+     * @param chunk (Chunk) The chunk to write.
+     * @throws IOException If the chunk could not be written.
+     */
+    protected void writeChunk(Chunk chunk) throws IOException
+    {
+        int rows = chunk.getRowCount();
+        ensureCapacity(4 + rows * (4 + 1 + 4 + 4 * chunk.getSpeciesCount()));
+        buffer.putInt(rows);
+        putInts(chunk.getSteps(), rows);
+        buffer.put(chunk.getSeasons(), 0, rows);
+        putInts(chunk.getTemperatures(), rows);
+        for (int column = 0; column < chunk.getSpeciesCount(); column++) {
+            putInts(chunk.getCounts(column), rows);
+        }
+        buffer.flip();
+        write(buffer);
+    }
+
+    /**
+     * Clear the buffer, replacing it by a larger one if it can not hold the given number of bytes.
+     *
+     * @param size (int) The number of bytes to encode.
+     */
+    private void ensureCapacity(int size)
+    {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Math.max(size, buffer.capacity() * 2));
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Add the first values of an array to the buffer.
+     *
+     * @param values (int[]) The values.
+     * @param count (int) The number of values to add.
+     */
+    private void putInts(int[] values, int count)
+    {
+        buffer.asIntBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * 4);
+    }
+
+    /**
+     * Add a list of names to the buffer: their number, then the length and bytes of each.
+     *
+     * @param names (String[]) The names.
+     */
+    private void putNames(String[] names)
+    {
+        buffer.putShort((short) names.length);
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * @param names (String[]) Some names.
+     * @return (int) The number of bytes putNames uses for them.
+     */
+    private static int namesSize(String[] names)
+    {
+        int size = 2;
+        for (String name : names) {
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rows of a .csv file, read and split once then kept for the rest of the session, indexed by
+ * the name in their first column. The CSV readers look their elements up here instead of reading
+ * the file again, so building many simulations does not read the files more than once.
+ *
+ * A catalog never changes once read, so it is shared by all the readers of its file, on any thread.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class CSVCatalog
+{
+    // The catalogs read so far, by file name.
+    private static final Map<String, CSVCatalog> catalogs = new ConcurrentHashMap<>();
+
+    // The names of the columns, from the first line of the file.
+    private final List<String> columns;
+    // The names in the first column, in the order of the file.
+    private final List<String> names;
+    // The values of each row, by name.
+    private final Map<String, List<String>> rows;
+
+    /**
+     * Read the rows of a file, its first line holding the names of the columns.
+     * Source: technique to read .csv files was found on https://stackabuse.com/reading-and-writing-csvs-in-java/
+     *
+     * @param fileName (String) The name of the file.
+     * @throws IOException If the file could not be read.
+     */
+    private CSVCatalog(String fileName) throws IOException
+    {
+        List<String> names = new ArrayList<>();
+        Map<String, List<String>> rows = new HashMap<>();
+        try(BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            // The first line holds the headers.
+            String line = br.readLine();
+            columns = (line != null) ? Collections.unmodifiableList(Arrays.asList(line.split(","))) : Collections.emptyList();
+            while ((line=br.readLine()) != null) {
+                String[] attributes = line.split(",");
+                names.add(attributes[0]);
+                // The first row of a name is the one found when the file was scanned for each lookup.
+                rows.putIfAbsent(attributes[0], Collections.unmodifiableList(Arrays.asList(attributes)));
+            }
+        }
+        this.names = Collections.unmodifiableList(names);
+        this.rows = rows;
+    }
+
+    /**
+     * Return the catalog of a file, reading the file if it was not read yet.
+     *
+     * @param fileName (String) The name of the file.
+     * @return (CSVCatalog) The catalog of the file, or null if it could not be read.
+     */
+    public static CSVCatalog of(String fileName)
+    {
+        try {
+            return catalogs.computeIfAbsent(fileName, name -> {
+                try {
+                    return new CSVCatalog(name);
+                }
+                catch (IOException e) {
+                    // Not cached, so that the file is read again on the next call.
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (UncheckedIOException e) {
+            System.out.println("Issue when parsing CSV");
+            return null;
+        }
+    }
+
+    /**
+     * @return (List<String>) The names in the first column of the file, in the order of the file.
+     */
+    public List<String> getNames()
+    {
+        return names;
+    }
+
+    /**
+     * @param column (String) The name of a column.
+     * @return (int) The index of the column in the rows, or -1 if the file has no such column.
+     */
+    public int getColumnIndex(String column)
+    {
+        return columns.indexOf(column);
+    }
+
+    /**
+     * @param name (String) The name of an element.
+     * @return (String[]) A copy of the values of the row of the element, its name first, or null if the file has no such element.
+     */
+    public String[] getRow(String name)
+    {
+        List<String> row = rows.get(name);
+        return (row != null) ? row.toArray(new String[0]) : null;
+    }
+}
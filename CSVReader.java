@@ -1,21 +1,26 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A class to govern behavior of the various CSV Readers (one for plants, animals, scenarios, and habitats).
- * This class implements the actual "reading from a .csv file behavior" behaviour.
+ * This class implements the actual "reading from a .csv file behavior" behaviour. The file is
+ * only read once, into a CSVCatalog shared by all the readers of the file.
  *
  * @author Anton Sirgue (K21018741) and Ali Alkhars (K20055566)
  * @version 2022.02.28
  */
 public abstract class CSVReader
 {
+    // The values replacing those of the file, by element name then by column index.
+    private final Map<String, Map<Integer, String>> overrides;
+
     /**
-     * Empty constructor for this class.
+     * Constructor for this class, reading the values of the file as they are.
      */
     public CSVReader()
     {
+        overrides = new HashMap<>();
     }
 
     /**
@@ -37,28 +42,61 @@ public abstract class CSVReader
     }
 
     /**
-     * Reads the data relative to a given element in the appropriate .csv file
+     * Reads the data relative to a given element in the catalog of the appropriate .csv file
      * (the path to this file depends on the children class from which this method is called)
-     * Source: technique to read .csv files was found on https://stackabuse.com/reading-and-writing-csvs-in-java/
      *
      * @param nameOfElementToLookFor (String) the name of the element which data must be extracted
      * @return (String[]) the extracted data
      */
     private String[] getDataFor(String nameOfElementToLookFor)
     {
-        try(BufferedReader br = new BufferedReader(new FileReader(getFileName()))) {
-            // Skip first line as they are headers.
-            String line = br.readLine();
-            while ((line=br.readLine()) != null) {
-                String[] attributes = line.split(",");
-                if (attributes[0].equals(nameOfElementToLookFor)) {
-                    return attributes;
+        CSVCatalog catalog = CSVCatalog.of(getFileName());
+        String[] row = (catalog != null) ? catalog.getRow(nameOfElementToLookFor) : null;
+        Map<Integer, String> values = overrides.get(nameOfElementToLookFor);
+        if (row != null && values != null) {
+            for (Map.Entry<Integer, String> value : values.entrySet()) {
+                row[value.getKey()] = value.getValue();
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Replace some values of the file in the data extracted from now on, without changing the file
+     * or its catalog, so that a parameter can be tried without editing the file.
+     *
+     * @param parameters (Map<String, String>) The new values, by "element.column", for instance "tiger.breedingProbability".
+     *                   The parameters of elements that are not in the file are ignored.
+     * @throws IllegalArgumentException If a parameter names an element of the file but none of its columns, or its name.
+     */
+    public void setOverrides(Map<String, String> parameters)
+    {
+        CSVCatalog catalog = CSVCatalog.of(getFileName());
+        Map<String, Map<Integer, String>> newOverrides = new HashMap<>();
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            String key = parameter.getKey();
+            int dot = key.lastIndexOf('.');
+            String element = (dot >= 0) ? key.substring(0, dot) : key;
+            if (hasElement(element)) {
+                int column = (dot >= 0) ? catalog.getColumnIndex(key.substring(dot + 1)) : -1;
+                if (column <= 0) {
+                    throw new IllegalArgumentException("Unknown parameter: " + key);
                 }
+                newOverrides.computeIfAbsent(element, name -> new HashMap<>()).put(column, parameter.getValue());
             }
-        } catch (Exception e) {
-            System.out.println("Issue when parsing CSV");
         }
-        return null;
+        overrides.clear();
+        overrides.putAll(newOverrides);
+    }
+
+    /**
+     * @param name (String) The name of an element.
+     * @return (boolean) true if the file holds data for the element.
+     */
+    public boolean hasElement(String name)
+    {
+        CSVCatalog catalog = CSVCatalog.of(getFileName());
+        return catalog != null && catalog.getRow(name) != null;
     }
 
     /**
@@ -85,25 +123,12 @@ public abstract class CSVReader
     /**
      * Returns a list of choices (of animals, habitats, and scenarios depending
      * on the child class it is called from) available to the user.
-     * Source: technique to read from .csv files was found on https://stackabuse.com/reading-and-writing-csvs-in-java/
      *
-     * @return (ArrayList<String>) The list of available choices.
+     * @return (ArrayList<String>) The list of available choices, or null if the file could not be read.
      */
     public ArrayList<String> getChoicesList()
     {
-        ArrayList<String> choicesList = new ArrayList<>();
-        try(BufferedReader br = new BufferedReader(new FileReader(getFileName()))) {
-            // Skip first line as they are headers.
-            String line = br.readLine();
-            while ((line=br.readLine()) != null) {
-                String[] attributes = line.split(",");
-                choicesList.add(attributes[0]);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.out.println("Issue when parsing CSV");
-            return null;
-        }
-        return choicesList;
+        CSVCatalog catalog = CSVCatalog.of(getFileName());
+        return (catalog != null) ? new ArrayList<>(catalog.getNames()) : null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,463 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Saves the whole state of a simulation to a file between two steps, and restores it, so that a
+ * long run can be resumed where it was saved. The file is written and read through memory
+ * mapping, so restoring a simulation costs little more than recreating its individuals.
+ *
+ * The random numbers of a step only depend on the seed, the step and the individuals'
+ * identifiers (see Randomizer), so saving the seed and the identifiers is enough for a restored
+ * simulation to draw the same numbers. Restored with the same engine, it runs exactly as the
+ * saved simulation would have.
+ *
+ * A simulation can also be captured in memory and restored several times, with another climate
+ * change scenario or seed, to branch independent simulations off a common warmed-up state.
+ *
+ * A checkpoint is mapped or allocated as a single buffer, so it holds at most MAX_SIZE bytes,
+ * about 79 million individuals. Larger simulations can not be saved nor captured.
+ *
+ * The file is a header followed by one record of AGENT_RECORD_SIZE bytes per individual, in the
+ * order they act. All numbers are big-endian, strings are a short length and UTF-8 bytes.
+ *     int MAGIC, short VERSION, long seed, int step, int depth, int width
+ *     the time (see Time.writeTo) and the habitat (see Habitat.writeTo)
+ *     short number of species definitions, then each definition
+ *     long births so far, short number of species in the field, then for each: int id,
+ *         string name, short number of causes and the long deaths of each cause
+ *     int number of individuals, then the records:
+ *         short species id, int cell, long identifier, int age, int food level or current health,
+ *         int hibernation steps or maximum health, byte flags
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class Checkpoint
+{
+    // The first bytes of a checkpoint ("SIMC").
+    public static final int MAGIC = 0x53494D43;
+    // The version of the format.
+    public static final short VERSION = 1;
+    // The size of the record of an individual, in bytes.
+    public static final int AGENT_RECORD_SIZE = 2 + 4 + 8 + 4 + 4 + 4 + 1;
+
+    // Bits of the flags of a record.
+    public static final byte FEMALE = 1;
+    public static final byte IN_HIBERNATION = 2;
+    // A plant that died back, which is not in the field.
+    public static final byte DORMANT = 4;
+    public static final byte CAN_REGROW = 8;
+    public static final byte IS_SPRING = 16;
+
+    // The largest size of a checkpoint, in bytes, the largest buffer that can be mapped or allocated.
+    public static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    // The size of the buffer the header is first written to, doubled until the header fits.
+    private static final int INITIAL_HEADER_CAPACITY = 4096;
+
+    /**
+     * Save a simulation to a file. The file is first written next to its final path then moved
+     * there, so that a crash while saving leaves the previous checkpoint untouched.
+     *
+     * @param simulator (Simulator) The simulation, between two steps.
+     * @param path (Path) The file to write.
+     * @throws IOException If the file could not be written, or the simulation is too large for a checkpoint.
+     */
+    public static void save(Simulator simulator, Path path) throws IOException
+    {
+        ByteBuffer header = writeHeader(simulator);
+        int population = simulator.getEngine().getPopulationSize();
+        int size = checkpointSize(header, population);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.put(header);
+            buffer.putInt(population);
+            simulator.getEngine().writeAgents(buffer);
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Compute the size of the checkpoint of a simulation.
+     *
+     * @param header (ByteBuffer) The header of the checkpoint, ready to be read.
+     * @param population (int) The number of individuals of the simulation.
+     * @return (int) The size of the checkpoint, in bytes.
+     * @throws IOException If the checkpoint would be larger than MAX_SIZE.
+     */
+    private static int checkpointSize(ByteBuffer header, int population) throws IOException
+    {
+        long size = header.remaining() + 4 + (long) AGENT_RECORD_SIZE * population;
+        if (size > MAX_SIZE) {
+            throw new IOException("A simulation of " + population + " individuals needs a checkpoint of " + size
+                    + " bytes, larger than the " + MAX_SIZE + " bytes a checkpoint can hold");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Capture a simulation in memory, in the format of the files written by save.
+     *
+     * @param simulator (Simulator) The simulation, between two steps.
+     * @return (ByteBuffer) A read-only buffer holding the checkpoint, which can be restored any number of times.
+     * @throws IOException If the simulation is too large for a checkpoint.
+     */
+    public static ByteBuffer capture(Simulator simulator) throws IOException
+    {
+        ByteBuffer header = writeHeader(simulator);
+        int population = simulator.getEngine().getPopulationSize();
+        ByteBuffer snapshot = ByteBuffer.allocate(checkpointSize(header, population));
+        snapshot.put(header);
+        snapshot.putInt(population);
+        simulator.getEngine().writeAgents(snapshot);
+        snapshot.flip();
+        return snapshot.asReadOnlyBuffer();
+    }
+
+    /**
+     * Restore a simulation captured in memory, optionally following another climate change scenario
+     * or drawing other random numbers from now on. The capture is left untouched.
+     *
+     * @param snapshot (ByteBuffer) The checkpoint returned by capture.
+     * @param engineType (EngineType) The engine of the restored simulation.
+     * @param observer (SimulationObserver) The observer of the restored simulation.
+     * @param colors (Function<SpeciesDefinition, Color>) The color given to the observer for each species.
+     * @param scenario (ClimateScenarios) The scenario followed from now on, or null to keep the captured one.
+     * @param seed (Long) The seed of the restored simulation, or null to keep the captured one.
+     * @return (Simulator) The restored simulation, ready to run its next step.
+     * @throws IOException If the buffer is not a checkpoint.
+     */
+    public static Simulator restore(ByteBuffer snapshot, EngineType engineType, SimulationObserver observer, Function<SpeciesDefinition, Color> colors,
+                                    ClimateScenarios scenario, Long seed) throws IOException
+    {
+        return read(snapshot.duplicate(), engineType, observer, colors, scenario, seed);
+    }
+
+    /**
+     * Restore a simulation saved to a file.
+     *
+     * @param path (Path) The file to read.
+     * @param engineType (EngineType) The engine of the restored simulation, the same as when saved to continue the run identically.
+     * @param observer (SimulationObserver) The observer of the restored simulation.
+     * @param colors (Function<SpeciesDefinition, Color>) The color given to the observer for each species.
+     * @return (Simulator) The restored simulation, ready to run its next step.
+     * @throws IOException If the file could not be read or is not a checkpoint.
+     */
+    public static Simulator restore(Path path, EngineType engineType, SimulationObserver observer, Function<SpeciesDefinition, Color> colors) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SIZE) {
+                throw new IOException("Not a checkpoint, larger than " + MAX_SIZE + " bytes: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, engineType, observer, colors, null, null);
+        }
+    }
+
+    /**
+     * Recreate a simulation from a checkpoint.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, from its first byte.
+     * @param engineType (EngineType) The engine of the restored simulation.
+     * @param observer (SimulationObserver) The observer of the restored simulation.
+     * @param colors (Function<SpeciesDefinition, Color>) The color given to the observer for each species.
+     * @param scenario (ClimateScenarios) The scenario followed from now on, or null to keep the saved one.
+     * @param newSeed (Long) The seed of the restored simulation, or null to keep the saved one.
+     * @return (Simulator) The restored simulation.
+     * @throws IOException If the buffer does not hold a checkpoint of this version, or holds a truncated or corrupt one.
+     */
+    private static Simulator read(ByteBuffer buffer, EngineType engineType, SimulationObserver observer, Function<SpeciesDefinition, Color> colors,
+                                  ClimateScenarios scenario, Long newSeed) throws IOException
+    {
+        if (buffer.remaining() < 6 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ", expected " + VERSION);
+        }
+        try {
+            return readContent(buffer, engineType, observer, colors, scenario, newSeed);
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException("Not a checkpoint: truncated", e);
+        }
+        catch (IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Not a checkpoint: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recreate a simulation from the content of a checkpoint, following its version. A corrupt checkpoint
+     * makes the decoding throw unchecked exceptions, which read turns into an IOException.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned after its version.
+     * @param engineType (EngineType) The engine of the restored simulation.
+     * @param observer (SimulationObserver) The observer of the restored simulation.
+     * @param colors (Function<SpeciesDefinition, Color>) The color given to the observer for each species.
+     * @param scenario (ClimateScenarios) The scenario followed from now on, or null to keep the saved one.
+     * @param newSeed (Long) The seed of the restored simulation, or null to keep the saved one.
+     * @return (Simulator) The restored simulation.
+     * @throws IOException If the individuals are missing or do not match the field and the species.
+     */
+    private static Simulator readContent(ByteBuffer buffer, EngineType engineType, SimulationObserver observer, Function<SpeciesDefinition, Color> colors,
+                                         ClimateScenarios scenario, Long newSeed) throws IOException
+    {
+        long savedSeed = buffer.getLong();
+        long seed = (newSeed != null) ? newSeed : savedSeed;
+        SimulationStep simStep = new SimulationStep(buffer.getInt());
+        Field field = new Field(buffer.getInt(), buffer.getInt());
+        Time time = Time.readFrom(buffer, simStep);
+        Habitat habitat = Habitat.readFrom(buffer, simStep);
+        if (scenario != null) {
+            habitat.setChangeScenario(scenario);
+        }
+
+        int definitionCount = buffer.getShort();
+        SpeciesDefinition[] definitions = new SpeciesDefinition[0];
+        SpeciesDefinition[] inOrder = new SpeciesDefinition[definitionCount];
+        for (int i = 0; i < definitionCount; i++) {
+            SpeciesDefinition definition = getDefinition(buffer);
+            if (definition.getId() >= definitions.length) {
+                definitions = Arrays.copyOf(definitions, definition.getId() + 1);
+            }
+            definitions[definition.getId()] = definition;
+            inOrder[i] = definition;
+        }
+
+        long births = buffer.getLong();
+        int speciesCount = buffer.getShort();
+        for (int i = 0; i < speciesCount; i++) {
+            int id = buffer.getInt();
+            String name = getString(buffer);
+            long[] deaths = new long[buffer.getShort()];
+            for (int cause = 0; cause < deaths.length; cause++) {
+                deaths[cause] = buffer.getLong();
+            }
+            field.restoreDeaths(id, name, deaths);
+        }
+
+        int population = buffer.getInt();
+        checkRecords(buffer, population, definitions, field);
+        SimulationEngine engine = engineType.createEngine(field, seed);
+        engine.readAgents(buffer, population, definitions);
+        field.restoreTotalBirths(births);
+
+        for (SpeciesDefinition definition : inOrder) {
+            observer.setColor(definition.getName(), colors.apply(definition));
+        }
+        return new Simulator(habitat, time, engine, field, simStep, observer, seed);
+    }
+
+    /**
+     * Check that the buffer holds the records of all the individuals, and that each of them is of a saved
+     * species and in a cell of the field, before any engine reads them.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the first record.
+     * @param population (int) The number of individuals announced.
+     * @param definitions (SpeciesDefinition[]) The saved species, by identifier.
+     * @param field (Field) The restored field.
+     * @throws IOException If a record is missing or invalid.
+     */
+    private static void checkRecords(ByteBuffer buffer, int population, SpeciesDefinition[] definitions, Field field) throws IOException
+    {
+        if (population < 0 || buffer.remaining() < (long) population * AGENT_RECORD_SIZE) {
+            throw new IOException("Not a checkpoint: " + population + " individuals announced, " + buffer.remaining() + " bytes of records left");
+        }
+        int position = buffer.position();
+        for (int i = 0; i < population; i++) {
+            int record = position + i * AGENT_RECORD_SIZE;
+            short speciesId = buffer.getShort(record);
+            int cell = buffer.getInt(record + 2);
+            if (speciesId < 0 || speciesId >= definitions.length || definitions[speciesId] == null) {
+                throw new IOException("Not a checkpoint: individual " + i + " is of an unknown species " + speciesId);
+            }
+            if (cell < 0 || cell >= field.getCellCount()) {
+                throw new IOException("Not a checkpoint: individual " + i + " is out of the field, in cell " + cell);
+            }
+        }
+    }
+
+    /**
+     * Write everything but the individuals to a new buffer.
+     *
+     * @param simulator (Simulator) The simulation.
+     * @return (ByteBuffer) The header, between the position and limit of the buffer.
+     */
+    private static ByteBuffer writeHeader(Simulator simulator)
+    {
+        int capacity = INITIAL_HEADER_CAPACITY;
+        while (true) {
+            ByteBuffer header = ByteBuffer.allocate(capacity);
+            try {
+                writeHeader(simulator, header);
+                header.flip();
+                return header;
+            }
+            catch (BufferOverflowException e) {
+                capacity *= 2;
+            }
+        }
+    }
+
+    /**
+     * Write everything but the individuals to the given buffer.
+     *
+     * @param simulator (Simulator) The simulation.
+     * @param header (ByteBuffer) The buffer to write to.
+     */
+    private static void writeHeader(Simulator simulator, ByteBuffer header)
+    {
+        Field field = simulator.getField();
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putLong(simulator.getSeed());
+        header.putInt(simulator.getCurrentStep());
+        header.putInt(field.getDepth());
+        header.putInt(field.getWidth());
+        simulator.getTime().writeTo(header);
+        simulator.getHabitat().writeTo(header);
+
+        List<SpeciesDefinition> definitions = simulator.getEngine().getDefinitions();
+        header.putShort((short) definitions.size());
+        for (SpeciesDefinition definition : definitions) {
+            putDefinition(header, definition);
+        }
+
+        header.putLong(field.getTotalBirths());
+        int speciesCount = 0;
+        for (int id = 0; id < field.getSpeciesIdBound(); id++) {
+            if (field.getSpeciesName(id) != null) {
+                speciesCount++;
+            }
+        }
+        header.putShort((short) speciesCount);
+        for (int id = 0; id < field.getSpeciesIdBound(); id++) {
+            if (field.getSpeciesName(id) != null) {
+                header.putInt(id);
+                putString(header, field.getSpeciesName(id));
+                header.putShort((short) DeathCause.COUNT);
+                for (DeathCause cause : DeathCause.values()) {
+                    header.putLong(field.getDeaths(id, cause));
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the record of an individual.
+     *
+     * @param buffer (ByteBuffer) The buffer to write to.
+     * @param speciesId (int) The id of the individual's species.
+     * @param cell (int) The individual's cell, kept by plants that died back.
+     * @param id (long) The identifier of the individual.
+     * @param age (int) The animal's age, 0 for plants.
+     * @param foodLevel (int) The animal's food level, or the plant's current health.
+     * @param hiberSteps (int) The animal's number of steps in hibernation, or the plant's maximum health.
+     * @param flags (byte) Combination of the flag bits of this class.
+     */
+    public static void putAgent(ByteBuffer buffer, int speciesId, int cell, long id, int age, int foodLevel, int hiberSteps, byte flags)
+    {
+        buffer.putShort((short) speciesId);
+        buffer.putInt(cell);
+        buffer.putLong(id);
+        buffer.putInt(age);
+        buffer.putInt(foodLevel);
+        buffer.putInt(hiberSteps);
+        buffer.put(flags);
+    }
+
+    /**
+     * Write a string as its length followed by its UTF-8 bytes.
+     *
+     * @param buffer (ByteBuffer) The buffer to write to.
+     * @param string (String) The string.
+     */
+    public static void putString(ByteBuffer buffer, String string)
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Read a string written by putString.
+     *
+     * @param buffer (ByteBuffer) The buffer to read from.
+     * @return (String) The string.
+     */
+    public static String getString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write all the characteristics of a species.
+     *
+     * @param buffer (ByteBuffer) The buffer to write to.
+     * @param definition (SpeciesDefinition) The species.
+     */
+    private static void putDefinition(ByteBuffer buffer, SpeciesDefinition definition)
+    {
+        buffer.putInt(definition.getId());
+        putString(buffer, definition.getName());
+        buffer.put(definition.getKind());
+        buffer.putInt(definition.getMaximumTemperature());
+        buffer.putInt(definition.getMinimumTemperature());
+        buffer.putInt(definition.getNutritionalValue());
+        buffer.putDouble(definition.getReproductionProbability());
+        buffer.putInt(definition.getMaxAge());
+        buffer.putInt(definition.getBreedingAge());
+        buffer.putInt(definition.getMaxLitterSize());
+        buffer.put((byte) (definition.getHibernates() ? 1 : 0));
+        buffer.put((byte) (definition.getIsNocturnal() ? 1 : 0));
+        buffer.putInt(definition.getStrength());
+        buffer.putInt(definition.getMaxHealth());
+    }
+
+    /**
+     * Read a species written by putDefinition.
+     *
+     * @param buffer (ByteBuffer) The buffer to read from.
+     * @return (SpeciesDefinition) The species.
+     */
+    private static SpeciesDefinition getDefinition(ByteBuffer buffer)
+    {
+        int id = buffer.getInt();
+        String name = getString(buffer);
+        byte kind = buffer.get();
+        int maximumTemperature = buffer.getInt();
+        int minimumTemperature = buffer.getInt();
+        int nutritionalValue = buffer.getInt();
+        double reproductionProbability = buffer.getDouble();
+        int maxAge = buffer.getInt();
+        int breedingAge = buffer.getInt();
+        int maxLitterSize = buffer.getInt();
+        boolean hibernates = buffer.get() != 0;
+        boolean isNocturnal = buffer.get() != 0;
+        int strength = buffer.getInt();
+        int maxHealth = buffer.getInt();
+        if (kind == Field.PLANT) {
+            return new SpeciesDefinition(id, name, maximumTemperature, minimumTemperature, nutritionalValue, reproductionProbability, maxHealth);
+        }
+        return new SpeciesDefinition(id, name, kind == Field.PREDATOR, maximumTemperature, minimumTemperature, nutritionalValue,
+                reproductionProbability, maxAge, breedingAge, maxLitterSize, hibernates, isNocturnal, strength);
+    }
+}
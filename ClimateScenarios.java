@@ -1,6 +1,8 @@
 /**
  * An enum that specifies the values and actions of the different
  * climate change scenarios to approximate the real scenarios projected by the IPCC.
+ * Scenarios hold no state, the change reached by a simulation is kept by its habitat,
+ * so that several simulations can follow the same scenario.
  *
  * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
  * @version 2022.02.28
@@ -9,34 +11,45 @@ public enum ClimateScenarios
 {
     SCENARIO1(0,0), SCENARIO2(1, 0.05), SCENARIO3(2, 0.15), SCENARIO4(3, 0.3);
     
-    private double concreteChange;
+    // the temperature change at the start of a simulation
+    private final int initialChange;
     private final double changePercentage;
 
     /**
      * Create an appropriate Climate Scenario
      *
-     * @param concreteChange (int) hold the actual temperature change value
-     * @param changePercentage (double) the change percentage that is added to the concreteChange each year
+     * @param initialChange (int) the temperature change value at the start of a simulation
+     * @param changePercentage (double) the change percentage that is added to the concrete change each year
      */
-    ClimateScenarios(int concreteChange, double changePercentage)
+    ClimateScenarios(int initialChange, double changePercentage)
     {
-        this.concreteChange = concreteChange;
+        this.initialChange = initialChange;
         this.changePercentage = changePercentage;
     }
-    
+
+    /**
+     * @return (double) the concrete temperature change at the start of a simulation
+     */
+    public double getInitialChange()
+    {
+        return initialChange;
+    }
+
     /**
-     * @return (int) the concreteChange as a rounded int
+     * @param concreteChange (double) the concrete temperature change reached so far
+     * @return (int) the concrete change as a rounded int
      */
-    public int getClimateChangeEffect()
+    public int getClimateChangeEffect(double concreteChange)
     {
         return (int) Math.round(concreteChange);
     }
 
     /**
-     * Increases the concreteChange by the changePercentage.
+     * @param concreteChange (double) the concrete temperature change reached so far
+     * @return (double) the concrete change increased by the changePercentage, as it is after a year
      */
-    public void doClimateChange()
+    public double doClimateChange(double concreteChange)
     {
-        concreteChange = concreteChange + (changePercentage * concreteChange);
+        return concreteChange + (changePercentage * concreteChange);
     }
 }
@@ -0,0 +1,727 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An engine storing the individuals as columns of primitive arrays rather than as objects.
+ * Each individual is an index into these arrays, which hold only what changes during its life
+ * (age, food level, hibernation steps, flags and cell). Everything that is common to a species
+ * is read from its shared SpeciesDefinition, which is also what the engine places in the field
+ * to mark the cells it occupies.
+ *
+ * Individuals behave exactly as the Animal, Predator and Plant objects of the default engine,
+ * the rules below mirror theirs. This engine uses far less memory per individual, which allows
+ * much larger populations to be simulated.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class CompactEngine implements SimulationEngine
+{
+    // The number of individuals the arrays can hold before they first need to grow.
+    private static final int INITIAL_CAPACITY = 1024;
+    // The number of steps that should pass until an animal in hibernation moves (as in Animal).
+    private static final int STAY_STEPS = 10;
+    // The probability that a plant's health grows (as in Plant).
+    private static final double GROWING_PROBABILITY = 0.1;
+    // The probability to die if exposed to too high or too cold temperatures (as in Species).
+    private static final double DYING_OF_COLD_OR_HEAT_PROBABILITY = 0.8;
+
+    // Bits of the flags column.
+    private static final byte ALIVE = 1;
+    private static final byte FEMALE = 2;
+    private static final byte IN_HIBERNATION = 4;
+    // A plant that appears dead due to temperature circumstances, and is not in the field.
+    private static final byte DEAD_DUE_TEMPERATURE = 8;
+    private static final byte CAN_REGROW = 16;
+    private static final byte IS_SPRING = 32;
+
+    // A random number generator.
+    private static final Random rand = Randomizer.getRandom();
+
+    // The field in which the species evolve.
+    private final Field field;
+    // The seed of the simulation, keying the random streams of the individuals.
+    private final long seed;
+    // The species present in the simulation, indexed by the values of the species column.
+    private final List<SpeciesDefinition> definitions;
+    // For each cell of the field, the index of the individual in it, or -1.
+    private final int[] individualAt;
+    // One neighbourhood, reused for every move.
+    private final Neighbourhood neighbourhood;
+    // The profiler timing the steps, or null when they are not timed.
+    private StepProfiler profiler;
+
+    // The columns, one entry per individual.
+    // Index of the individual's species in definitions.
+    private short[] species;
+    // The index of the individual's cell in the field.
+    private int[] cell;
+    // The identifier of the individual, keying the random numbers it draws.
+    private long[] id;
+    // The animal's age.
+    private int[] age;
+    // The animal's food level, or the plant's current health.
+    private int[] foodLevel;
+    // The animal's number of steps in hibernation, or the plant's maximum health.
+    private int[] hiberSteps;
+    // Combination of the flag bits above.
+    private byte[] flags;
+    // The number of individuals in the columns.
+    private int size;
+
+    /**
+     * Create an engine with no individuals.
+     *
+     * @param field (Field) The field in which the species evolve.
+     * @param seed (long) The seed of the simulation.
+     */
+    public CompactEngine(Field field, long seed)
+    {
+        this.field = field;
+        this.seed = seed;
+        definitions = new ArrayList<>();
+        individualAt = new int[field.getCellCount()];
+        Arrays.fill(individualAt, -1);
+        neighbourhood = new Neighbourhood();
+
+        species = new short[INITIAL_CAPACITY];
+        cell = new int[INITIAL_CAPACITY];
+        id = new long[INITIAL_CAPACITY];
+        age = new int[INITIAL_CAPACITY];
+        foodLevel = new int[INITIAL_CAPACITY];
+        hiberSteps = new int[INITIAL_CAPACITY];
+        flags = new byte[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Add an individual of the given species to the columns and place it in the field.
+     *
+     * @param definition (SpeciesDefinition) The species of the individual.
+     * @param location (Location) The free location where the individual appears.
+     * @param randomAge (boolean) Whether an animal should be created with a random age.
+     */
+    public void spawn(SpeciesDefinition definition, Location location, boolean randomAge)
+    {
+        int speciesIndex = definitions.indexOf(definition);
+        if (speciesIndex < 0) {
+            definitions.add(definition);
+            speciesIndex = definitions.size() - 1;
+        }
+        int where = field.getCellIndex(location.getRow(), location.getCol());
+        if (definition.getKind() == Field.PLANT) {
+            addPlant(speciesIndex, where, definition.getMaxHealth(), true);
+        }
+        else {
+            int startAge = randomAge ? rand.nextInt(definition.getMaxAge()) : 0;
+            addAnimal(speciesIndex, where, startAge);
+        }
+    }
+
+    /**
+     * Make every individual act once, then remove the dead ones from the columns.
+     * Individuals born during the step only act from the next step on.
+     *
+     * @param step (int) The number of the step being run.
+     * @param isSpring (boolean) If the current season is spring.
+     * @param isNight (boolean) If it is currently night.
+     * @param temperature (int) The current temperature.
+     * @param yearPassed (boolean) If a year is passing on this step.
+     */
+    public void step(int step, boolean isSpring, boolean isNight, int temperature, boolean yearPassed)
+    {
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & ALIVE) != 0) {
+                Randomizer.beginStream(seed, step, id[i]);
+                SpeciesDefinition definition = definitions.get(species[i]);
+                long start = (profiler != null) ? System.nanoTime() : 0;
+                if (definition.getKind() == Field.PLANT) {
+                    actPlant(i, definition, isSpring, isNight, temperature, yearPassed);
+                }
+                else {
+                    actAnimal(i, definition, isNight, temperature, yearPassed);
+                }
+                if (profiler != null) {
+                    profiler.record(StepProfiler.actPhase(definition.getKind()), System.nanoTime() - start);
+                }
+            }
+        }
+        long mergeStart = (profiler != null) ? System.nanoTime() : 0;
+        removeDead();
+        if (profiler != null) {
+            profiler.record(StepProfiler.MERGE, System.nanoTime() - mergeStart);
+        }
+    }
+
+    /**
+     * @return (int) The number of individuals in the columns.
+     */
+    public int getPopulationSize()
+    {
+        return size;
+    }
+
+    /**
+     * Time the acts of the individuals, by kind, and the merge of the newborns in the given profiler.
+     *
+     * @param profiler (StepProfiler) The profiler, or null to stop timing.
+     */
+    public void setProfiler(StepProfiler profiler)
+    {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return (List<SpeciesDefinition>) The species of all the individuals ever given to the engine.
+     */
+    public List<SpeciesDefinition> getDefinitions()
+    {
+        return new ArrayList<>(definitions);
+    }
+
+    /**
+     * Write the record of every living individual to a checkpoint, in the order of the columns.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, with room for getPopulationSize() records.
+     */
+    public void writeAgents(ByteBuffer buffer)
+    {
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & ALIVE) != 0) {
+                byte recordFlags = 0;
+                if ((flags[i] & FEMALE) != 0) {
+                    recordFlags |= Checkpoint.FEMALE;
+                }
+                if ((flags[i] & IN_HIBERNATION) != 0) {
+                    recordFlags |= Checkpoint.IN_HIBERNATION;
+                }
+                if ((flags[i] & DEAD_DUE_TEMPERATURE) != 0) {
+                    recordFlags |= Checkpoint.DORMANT;
+                }
+                if ((flags[i] & CAN_REGROW) != 0) {
+                    recordFlags |= Checkpoint.CAN_REGROW;
+                }
+                if ((flags[i] & IS_SPRING) != 0) {
+                    recordFlags |= Checkpoint.IS_SPRING;
+                }
+                Checkpoint.putAgent(buffer, definitions.get(species[i]).getId(), cell[i], id[i], age[i], foodLevel[i], hiberSteps[i], recordFlags);
+            }
+        }
+    }
+
+    /**
+     * Append the individuals read from a checkpoint to the columns.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the first record.
+     * @param count (int) The number of records to read.
+     * @param definitionsById (SpeciesDefinition[]) The species of the individuals, indexed by species id.
+     */
+    public void readAgents(ByteBuffer buffer, int count, SpeciesDefinition[] definitionsById)
+    {
+        for (int n = 0; n < count; n++) {
+            SpeciesDefinition definition = definitionsById[buffer.getShort()];
+            int speciesIndex = definitions.indexOf(definition);
+            if (speciesIndex < 0) {
+                definitions.add(definition);
+                speciesIndex = definitions.size() - 1;
+            }
+            ensureCapacity();
+            int i = size++;
+            species[i] = (short) speciesIndex;
+            cell[i] = buffer.getInt();
+            id[i] = buffer.getLong();
+            age[i] = buffer.getInt();
+            foodLevel[i] = buffer.getInt();
+            hiberSteps[i] = buffer.getInt();
+            byte recordFlags = buffer.get();
+            flags[i] = ALIVE;
+            if ((recordFlags & Checkpoint.FEMALE) != 0) {
+                flags[i] |= FEMALE;
+            }
+            if ((recordFlags & Checkpoint.IN_HIBERNATION) != 0) {
+                flags[i] |= IN_HIBERNATION;
+            }
+            if ((recordFlags & Checkpoint.CAN_REGROW) != 0) {
+                flags[i] |= CAN_REGROW;
+            }
+            if ((recordFlags & Checkpoint.IS_SPRING) != 0) {
+                flags[i] |= IS_SPRING;
+            }
+            field.countBirth(definition);
+            if ((recordFlags & Checkpoint.DORMANT) != 0) {
+                // A plant that died back keeps its cell but is not in the field.
+                flags[i] |= DEAD_DUE_TEMPERATURE;
+                field.countDieBack(definition.getId());
+            }
+            else {
+                field.place(definition, cell[i]);
+                individualAt[cell[i]] = i;
+            }
+        }
+    }
+
+    /**
+     * Remove every individual from the columns.
+     */
+    public void clear()
+    {
+        size = 0;
+        Arrays.fill(individualAt, -1);
+    }
+
+    /**
+     * Imitate an animal's step, following the same rules as Animal.act.
+     *
+     * @param i (int) The index of the animal.
+     * @param definition (SpeciesDefinition) The animal's species.
+     * @param isNight (boolean) true if it is night in the simulation
+     * @param temperature (int) the current temperature of the simulation
+     * @param yearPassed (boolean) true if a year has passed in the simulation
+     */
+    private void actAnimal(int i, SpeciesDefinition definition, boolean isNight, int temperature, boolean yearPassed)
+    {
+        if (yearPassed) {
+            age[i]++;
+            if (age[i] > definition.getMaxAge()) {
+                kill(i, DeathCause.AGE);
+            }
+        }
+
+        if ((flags[i] & ALIVE) != 0)
+        {
+            if (definition.getHibernates() && temperature <= definition.getMinimumTemperature() + 5) {
+                flags[i] |= IN_HIBERNATION;
+            }
+            else {
+                flags[i] &= ~IN_HIBERNATION;
+                hiberSteps[i] = 0;
+            }
+
+            if ((flags[i] & IN_HIBERNATION) != 0)
+            {
+                if (hiberSteps[i] % STAY_STEPS == 0) {
+                    makeMove(i, definition);
+                    incrementHunger(i);
+                }
+                hiberSteps[i]++;
+            }
+            else if (! survivesTemperature(definition, temperature))
+            {
+                kill(i, DeathCause.TEMPERATURE);
+            }
+            else
+            {
+                if (isNight && definition.getIsNocturnal()) {
+                    makeMove(i, definition);
+                }
+                else if (! isNight) {
+                    makeMove(i, definition);
+                }
+                if (! isNight) {
+                    incrementHunger(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * An animal's movement, following the same rules as Animal.makeMove and Predator.makeMove.
+     * A predator is first checked for an attack by a horde, then the animal tries to reproduce,
+     * to eat and finally to move. If no adjacent cell is available, it dies of overcrowding.
+     *
+     * @param i (int) The index of the animal.
+     * @param definition (SpeciesDefinition) The animal's species.
+     */
+    private void makeMove(int i, SpeciesDefinition definition)
+    {
+        // The animal may have been killed by an earlier incrementHunger.
+        if ((flags[i] & ALIVE) == 0) {
+            return;
+        }
+        neighbourhood.scan(field, cell[i]);
+        boolean isPredator = definition.getKind() == Field.PREDATOR;
+
+        if (isPredator) {
+            checkForAttack(i, definition);
+            if ((flags[i] & ALIVE) == 0) {
+                return;
+            }
+        }
+
+        if (canReproduce(i, definition)) {
+            reproduce(i, definition);
+        }
+
+        int preyCell = -1;
+        if (foodLevel[i] < definition.getNutritionalValue() * 1.5) {
+            if (isPredator) {
+                preyCell = eatPrey(i);
+            }
+            else {
+                eatPlant(i);
+            }
+        }
+        // As in Predator.makeMove, the cell freed by the eaten prey is only used if no other cell is free.
+        int newCell = neighbourhood.takeFreeCell(field);
+        if (newCell < 0) {
+            newCell = preyCell;
+        }
+
+        if (newCell >= 0) {
+            moveTo(i, newCell);
+        }
+        else {
+            // Overcrowding.
+            kill(i, DeathCause.OVERCROWDING);
+        }
+    }
+
+    /**
+     * Check if a female has a male of its species in a neighboring cell.
+     *
+     * @param i (int) The index of the animal.
+     * @param definition (SpeciesDefinition) The animal's species.
+     * @return (boolean) if animal can reproduce.
+     */
+    private boolean canReproduce(int i, SpeciesDefinition definition)
+    {
+        if ((flags[i] & FEMALE) == 0) {
+            return false;
+        }
+        byte kind = definition.getKind();
+        int count = neighbourhood.getCount(kind);
+        for (int n = 0; n < count; n++) {
+            int neighbor = individualAt[neighbourhood.getCell(kind, n)];
+            if (neighbor >= 0 && species[neighbor] == species[i] && (flags[neighbor] & (ALIVE | FEMALE)) == ALIVE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create newborns of the animal's species in the free cells of its neighbourhood.
+     *
+     * @param i (int) The index of the animal.
+     * @param definition (SpeciesDefinition) The animal's species.
+     */
+    private void reproduce(int i, SpeciesDefinition definition)
+    {
+        int births = 0;
+        if (age[i] >= definition.getBreedingAge() && rand.nextDouble() <= definition.getReproductionProbability()) {
+            births = rand.nextInt(definition.getMaxLitterSize()) + 1;
+        }
+        for (int b = 0; b < births; b++) {
+            int free = neighbourhood.takeFreeCell(field);
+            if (free < 0) {
+                break;
+            }
+            addAnimal(species[i], free, 0);
+        }
+    }
+
+    /**
+     * Eat the first living plant found in the neighbourhood.
+     *
+     * @param i (int) The index of the animal.
+     */
+    private void eatPlant(int i)
+    {
+        int plantCount = neighbourhood.getCount(Field.PLANT);
+        for (int n = 0; n < plantCount; n++) {
+            int plant = individualAt[neighbourhood.getCell(Field.PLANT, n)];
+            if (plant >= 0 && (flags[plant] & ALIVE) != 0) {
+                // The plant's current health is kept in the food level column.
+                foodLevel[plant]--;
+                if (foodLevel[plant] <= 0) {
+                    kill(plant, DeathCause.GRAZING);
+                }
+                foodLevel[i] += definitions.get(species[plant]).getNutritionalValue();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Eat the first living prey found in the neighbourhood.
+     *
+     * @param i (int) The index of the predator.
+     * @return (int) The cell of the eaten prey, -1 if no prey was found.
+     */
+    private int eatPrey(int i)
+    {
+        int preyCount = neighbourhood.getCount(Field.PREY);
+        for (int n = 0; n < preyCount; n++) {
+            int preyCell = neighbourhood.getCell(Field.PREY, n);
+            int prey = individualAt[preyCell];
+            if (prey >= 0 && (flags[prey] & ALIVE) != 0) {
+                kill(prey, DeathCause.PREDATION);
+                foodLevel[i] += definitions.get(species[prey]).getNutritionalValue();
+                return preyCell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if a predator is attacked by a horde of another species of predators whose total
+     * strength is greater than its own. If so, the horde shares its nutritional value and it dies.
+     *
+     * @param i (int) The index of the predator.
+     * @param definition (SpeciesDefinition) The predator's species.
+     */
+    private void checkForAttack(int i, SpeciesDefinition definition)
+    {
+        int predatorCount = neighbourhood.getCount(Field.PREDATOR);
+        for (int n = 0; n < predatorCount; n++) {
+            int candidate = individualAt[neighbourhood.getCell(Field.PREDATOR, n)];
+            if (candidate >= 0 && species[candidate] != species[i]) {
+                short hordeSpecies = species[candidate];
+                // Same rule as Predator.checkForAttack: the candidate counts once more than the members of its species,
+                // and all the shares go to it.
+                int hordeSize = 1;
+                for (int m = 0; m < predatorCount; m++) {
+                    int member = individualAt[neighbourhood.getCell(Field.PREDATOR, m)];
+                    if (member >= 0 && species[member] == hordeSpecies) {
+                        hordeSize++;
+                    }
+                }
+                int totalHordeStrength = definitions.get(hordeSpecies).getStrength() * hordeSize;
+                if (totalHordeStrength > definition.getStrength()) {
+                    int share = definition.getNutritionalValue() / hordeSize;
+                    foodLevel[candidate] += share * hordeSize;
+                    kill(i, DeathCause.HORDE);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Imitate a plant's step, following the same rules as Plant.act.
+     *
+     * @param i (int) The index of the plant.
+     * @param definition (SpeciesDefinition) The plant's species.
+     * @param isSpring (boolean) true if the current season is spring
+     * @param isNight (boolean) true if it is night in the simulation
+     * @param temperature (int) The current temperature of the simulation
+     * @param yearPassed (boolean) True if a year has passed in the simulation
+     */
+    private void actPlant(int i, SpeciesDefinition definition, boolean isSpring, boolean isNight, int temperature, boolean yearPassed)
+    {
+        if (((flags[i] & IS_SPRING) != 0) != isSpring) {
+            // At least a season has passed, so a plant that died can regrow.
+            flags[i] ^= IS_SPRING;
+            flags[i] |= CAN_REGROW;
+        }
+
+        boolean deadDueTemperature = (flags[i] & DEAD_DUE_TEMPERATURE) != 0;
+        if (! deadDueTemperature && ! survivesTemperature(definition, temperature))
+        {
+            // The plant disappears from the field but remembers its cell.
+            flags[i] |= DEAD_DUE_TEMPERATURE;
+            flags[i] &= ~CAN_REGROW;
+            field.clear(cell[i]);
+            field.countDieBack(definition.getId());
+            individualAt[cell[i]] = -1;
+        }
+        else if (! isNight)
+        {
+            if (deadDueTemperature && survivesTemperature(definition, temperature) && isSpring) {
+                if (field.getObjectAt(cell[i]) == null && (flags[i] & CAN_REGROW) != 0) {
+                    flags[i] &= ~DEAD_DUE_TEMPERATURE;
+                    field.place(definition, cell[i]);
+                    field.countRegrowth(definition.getId());
+                    individualAt[cell[i]] = i;
+                    // The plant's maximum health is kept in the hiberSteps column.
+                    foodLevel[i] = hiberSteps[i];
+                }
+            }
+            else if (! deadDueTemperature) {
+                if (yearPassed) {
+                    hiberSteps[i]++;
+                }
+                if (rand.nextDouble() <= definition.getReproductionProbability()) {
+                    int free = field.freeAdjacentCell(cell[i]);
+                    if (free >= 0) {
+                        addPlant(species[i], free, hiberSteps[i], (flags[i] & IS_SPRING) != 0);
+                    }
+                }
+                if (foodLevel[i] < hiberSteps[i] && rand.nextDouble() <= GROWING_PROBABILITY) {
+                    foodLevel[i]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if an individual survives the current temperature, as in Species.survivesTemperature.
+     *
+     * @param definition (SpeciesDefinition) The individual's species.
+     * @param temperature (int) The current temperature.
+     * @return (boolean) true if the individual survives.
+     */
+    private boolean survivesTemperature(SpeciesDefinition definition, int temperature)
+    {
+        if (temperature > definition.getMaximumTemperature() || temperature < definition.getMinimumTemperature()) {
+            return rand.nextDouble() <= DYING_OF_COLD_OR_HEAT_PROBABILITY;
+        }
+        return true;
+    }
+
+    /**
+     * Make an animal more hungry. This could result in its death.
+     *
+     * @param i (int) The index of the animal.
+     */
+    private void incrementHunger(int i)
+    {
+        foodLevel[i]--;
+        if (foodLevel[i] <= 0) {
+            kill(i, DeathCause.HUNGER);
+        }
+    }
+
+    /**
+     * Move an individual to another cell.
+     *
+     * @param i (int) The index of the individual.
+     * @param newCell (int) The cell to move to.
+     */
+    private void moveTo(int i, int newCell)
+    {
+        field.clear(cell[i]);
+        individualAt[cell[i]] = -1;
+        cell[i] = newCell;
+        field.place(definitions.get(species[i]), newCell);
+        individualAt[newCell] = i;
+    }
+
+    /**
+     * Mark an individual as dead and remove it from the field. It is removed from the columns at the end of the step.
+     *
+     * @param i (int) The index of the individual.
+     * @param cause (DeathCause) Why the individual died, counted by the field.
+     */
+    private void kill(int i, DeathCause cause)
+    {
+        if ((flags[i] & ALIVE) == 0) {
+            return;
+        }
+        flags[i] &= ~ALIVE;
+        field.countDeath(definitions.get(species[i]).getId(), cause);
+        if (individualAt[cell[i]] == i) {
+            field.clear(cell[i]);
+            individualAt[cell[i]] = -1;
+        }
+    }
+
+    /**
+     * Add a new animal at the end of the columns and place it in the field.
+     *
+     * @param speciesIndex (int) The index of the animal's species in definitions.
+     * @param where (int) The animal's cell.
+     * @param startAge (int) The animal's age.
+     */
+    private void addAnimal(int speciesIndex, int where, int startAge)
+    {
+        SpeciesDefinition definition = definitions.get(speciesIndex);
+        int i = add(speciesIndex, where);
+        age[i] = startAge;
+        int lowBound = definition.getNutritionalValue() / 2;
+        foodLevel[i] = rand.nextInt(lowBound) + lowBound;
+        hiberSteps[i] = 0;
+        flags[i] = ALIVE;
+        if (rand.nextDouble() <= 0.5) {
+            flags[i] |= FEMALE;
+        }
+    }
+
+    /**
+     * Add a new plant at the end of the columns and place it in the field.
+     *
+     * @param speciesIndex (int) The index of the plant's species in definitions.
+     * @param where (int) The plant's cell.
+     * @param maxHealth (int) The plant's maximum health, which is also its starting health.
+     * @param isSpring (boolean) Whether the plant believes it is spring.
+     */
+    private void addPlant(int speciesIndex, int where, int maxHealth, boolean isSpring)
+    {
+        int i = add(speciesIndex, where);
+        age[i] = 0;
+        foodLevel[i] = maxHealth;
+        hiberSteps[i] = maxHealth;
+        flags[i] = ALIVE | CAN_REGROW;
+        if (isSpring) {
+            flags[i] |= IS_SPRING;
+        }
+    }
+
+    /**
+     * Append an individual to the columns, growing them if needed, and place it in the field.
+     *
+     * @param speciesIndex (int) The index of the individual's species in definitions.
+     * @param where (int) The individual's cell.
+     * @return (int) The index of the new individual.
+     */
+    private int add(int speciesIndex, int where)
+    {
+        ensureCapacity();
+        int i = size++;
+        species[i] = (short) speciesIndex;
+        cell[i] = where;
+        // Drawn from the stream of the parent, or of the initialization.
+        id[i] = rand.nextLong();
+        field.place(definitions.get(speciesIndex), where);
+        field.countBirth(definitions.get(speciesIndex));
+        individualAt[where] = i;
+        return i;
+    }
+
+    /**
+     * Double the length of the columns if they are full.
+     */
+    private void ensureCapacity()
+    {
+        if (size == species.length) {
+            int capacity = size * 2;
+            species = Arrays.copyOf(species, capacity);
+            cell = Arrays.copyOf(cell, capacity);
+            id = Arrays.copyOf(id, capacity);
+            age = Arrays.copyOf(age, capacity);
+            foodLevel = Arrays.copyOf(foodLevel, capacity);
+            hiberSteps = Arrays.copyOf(hiberSteps, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+    }
+
+    /**
+     * Remove the dead individuals by moving the living ones down the columns, keeping their order.
+     */
+    private void removeDead()
+    {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & ALIVE) != 0) {
+                if (kept != i) {
+                    species[kept] = species[i];
+                    cell[kept] = cell[i];
+                    id[kept] = id[i];
+                    age[kept] = age[i];
+                    foodLevel[kept] = foodLevel[i];
+                    hiberSteps[kept] = hiberSteps[i];
+                    flags[kept] = flags[i];
+                    if (individualAt[cell[i]] == i) {
+                        individualAt[cell[i]] = kept;
+                    }
+                }
+                kept++;
+            }
+        }
+        size = kept;
+    }
+}
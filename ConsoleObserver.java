@@ -0,0 +1,75 @@
+import java.awt.Color;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An observer printing the state of a simulation as text, for simulations run without a display.
+ * Only one status out of every 'reportInterval' is printed, the others cost next to nothing.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class ConsoleObserver implements SimulationObserver
+{
+    // Where the statuses are printed.
+    private final PrintStream out;
+    // The number of steps between two printed statuses, 0 to print none.
+    private final int reportInterval;
+    // The names of the species, in the order they were added.
+    private final List<String> speciesNames;
+
+    /**
+     * Create an observer printing a status every 'reportInterval' steps.
+     *
+     * @param out (PrintStream) Where the statuses are printed.
+     * @param reportInterval (int) The number of steps between two printed statuses, 0 to print none.
+     */
+    public ConsoleObserver(PrintStream out, int reportInterval)
+    {
+        this.out = out;
+        this.reportInterval = reportInterval;
+        speciesNames = new ArrayList<>();
+    }
+
+    /**
+     * Remember the name of the specie, the color is not used.
+     *
+     * @param speciesName (String) The specie's name.
+     * @param color (Color) The color given to the specie.
+     */
+    public void setColor(String speciesName, Color color)
+    {
+        speciesNames.add(speciesName);
+    }
+
+    /**
+     * Print the step, time, season, temperature and the count of each specie, if a status is due.
+     *
+     * @param step (int) Which iteration step it is.
+     * @param time (String) The current time in the simulation
+     * @param season (String) The current season in the simulation
+     * @param temperature (int) The current temperature in the simulation
+     * @param field (Field) The field whose status is to be printed.
+     */
+    public void showStatus(int step, String time, String season, int temperature, Field field)
+    {
+        if (reportInterval <= 0 || step % reportInterval != 0) {
+            return;
+        }
+        FieldStats stats = new FieldStats(field);
+        StringBuilder line = new StringBuilder();
+        line.append("step ").append(step).append(", ").append(time).append(", ").append(season).append(", ").append(temperature).append(" C");
+        for (String name : speciesNames) {
+            line.append(", ").append(name).append(": ").append(stats.getCount(name));
+        }
+        out.println(line);
+    }
+
+    /**
+     * Nothing to do, statuses are printed as they arrive.
+     */
+    public void runEnded()
+    {
+    }
+}
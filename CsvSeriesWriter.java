@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Writes the series of a simulation as a CSV file, one line per step:
+ *     step,season,temperature,species1,species2,...
+ * Larger than the binary format, but readable by any tool.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class CsvSeriesWriter extends SeriesWriter
+{
+    // The text of a chunk, reused from chunk to chunk.
+    private final StringBuilder text;
+
+    /**
+     * Create the file, replacing it if it exists.
+     *
+     * @param path (Path) The file to write.
+     * @throws IOException If the file can not be created.
+     */
+    public CsvSeriesWriter(Path path) throws IOException
+    {
+        super(path);
+        text = new StringBuilder();
+    }
+
+    /**
+     * Write the line naming the columns.
+     *
+     * @param speciesNames (String[]) The names of the columns of counts.
+     * @throws IOException If the header could not be written.
+     */
+    protected void writeHeader(String[] speciesNames) throws IOException
+    {
+        text.setLength(0);
+        text.append("step,season,temperature");
+        for (String name : speciesNames) {
+            text.append(',').append(name);
+        }
+        text.append('\n');
+        writeText();
+    }
+
+    /**
+     * Write a line for each row of a chunk.
+     *
+     * @param chunk (Chunk) The chunk to write.
+     * @throws IOException If the chunk could not be written.
+     */
+    protected void writeChunk(Chunk chunk) throws IOException
+    {
+        text.setLength(0);
+        for (int row = 0; row < chunk.getRowCount(); row++) {
+            byte season = chunk.getSeasons()[row];
+            text.append(chunk.getSteps()[row]).append(',').append((season >= 0) ? SEASONS[season] : "").append(',').append(chunk.getTemperatures()[row]);
+            for (int column = 0; column < chunk.getSpeciesCount(); column++) {
+                text.append(',').append(chunk.getCounts(column)[row]);
+            }
+            text.append('\n');
+        }
+        writeText();
+    }
+
+    /**
+     * Write the text built so far to the file.
+     *
+     * @throws IOException If the text could not be written.
+     */
+    private void writeText() throws IOException
+    {
+        write(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * Why an individual died. Every death is counted by the field under its cause, so that the
+ * parameters of the species can be tuned from the counts.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public enum DeathCause
+{
+    // The animal grew older than the maximum age of its species.
+    AGE,
+    // The animal's food level fell to zero.
+    HUNGER,
+    // The animal had no free cell around it to move to.
+    OVERCROWDING,
+    // The animal did not survive a temperature out of the range of its species.
+    TEMPERATURE,
+    // The prey was eaten by a predator.
+    PREDATION,
+    // The predator was eaten by a stronger horde of another species of predators.
+    HORDE,
+    // The plant was eaten until its health fell to zero.
+    GRAZING;
+
+    // The number of causes, the size of the counters indexed by cause.
+    public static final int COUNT = values().length;
+}
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+/**
+ * The deaths of each step of a simulation, by species and cause. The field counts the deaths
+ * as they happen; at the end of each step, endStep compares its counts with those of the
+ * previous step. The counts are kept in arrays reused from step to step, so following the
+ * deaths of a long simulation does not allocate anything once all species are met.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class DeathStats
+{
+    // The causes, read once as values() copies its array on every call.
+    private static final DeathCause[] CAUSES = DeathCause.values();
+
+    // The field counting the deaths.
+    private final Field field;
+    // The field's counts at the end of the previous step, at index speciesId * DeathCause.COUNT + cause.
+    private long[] previousTotals;
+    // The deaths of the last step, indexed as previousTotals.
+    private long[] stepDeaths;
+
+    /**
+     * Start following the deaths of a field from its current counts.
+     *
+     * @param field (Field) The field counting the deaths.
+     */
+    public DeathStats(Field field)
+    {
+        this.field = field;
+        previousTotals = new long[0];
+        stepDeaths = new long[0];
+        endStep();
+    }
+
+    /**
+     * Work out the deaths since the previous call, which become the deaths of the last step.
+     */
+    public void endStep()
+    {
+        int length = field.getSpeciesIdBound() * DeathCause.COUNT;
+        if (length > previousTotals.length) {
+            // New species start from no death.
+            previousTotals = Arrays.copyOf(previousTotals, length);
+            stepDeaths = Arrays.copyOf(stepDeaths, length);
+        }
+        for (int speciesId = 0; speciesId < length / DeathCause.COUNT; speciesId++) {
+            for (DeathCause cause : CAUSES) {
+                int index = speciesId * DeathCause.COUNT + cause.ordinal();
+                long total = field.getDeaths(speciesId, cause);
+                stepDeaths[index] = total - previousTotals[index];
+                previousTotals[index] = total;
+            }
+        }
+    }
+
+    /**
+     * @param speciesId (int) The id of a species.
+     * @param cause (DeathCause) The cause of death.
+     * @return (long) The number of individuals of the species that died of the cause during the last step.
+     */
+    public long getStepDeaths(int speciesId, DeathCause cause)
+    {
+        int index = speciesId * DeathCause.COUNT + cause.ordinal();
+        return (index < stepDeaths.length) ? stepDeaths[index] : 0;
+    }
+
+    /**
+     * @param speciesName (String) The name of a species.
+     * @param cause (DeathCause) The cause of death.
+     * @return (long) The number of individuals of the species that died of the cause during the last step.
+     */
+    public long getStepDeaths(String speciesName, DeathCause cause)
+    {
+        int id = field.getSpeciesId(speciesName);
+        return (id >= 0) ? getStepDeaths(id, cause) : 0;
+    }
+
+    /**
+     * @param cause (DeathCause) The cause of death.
+     * @return (long) The number of individuals of all species that died of the cause during the last step.
+     */
+    public long getStepDeaths(DeathCause cause)
+    {
+        long deaths = 0;
+        for (int index = cause.ordinal(); index < stepDeaths.length; index += DeathCause.COUNT) {
+            deaths += stepDeaths[index];
+        }
+        return deaths;
+    }
+}
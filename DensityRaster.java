@@ -0,0 +1,347 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+
+/**
+ * A density map of a species, read row by row to place the initial individuals of a simulation.
+ * The value of each pixel, divided by the largest value the image can hold, is the probability
+ * that the matching cell of the field starts with an individual of the species.
+ *
+ * Three formats are read, chosen by the extension of the file:
+ *     .pgm         a grey map, binary (P5, 8 or 16 bits) or text (P2), of any size.
+ *     .raw, .bin   one unsigned byte, or two big-endian bytes, per cell of the field, row after row.
+ *     other        an image read by ImageIO (PNG, GIF, BMP...), of any size, using its first band.
+ * Grey maps and raw files are streamed, so only one row of the map is kept in memory. Images are
+ * decoded whole by ImageIO, so the first two formats are better suited to very large maps.
+ *
+ * A map of another size than the field is stretched over it, each cell taking the value of the
+ * pixel it falls on.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public abstract class DensityRaster implements Closeable
+{
+    // The size of the buffer the streamed formats are read through.
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // The number of rows and columns of the map.
+    private final int rasterDepth, rasterWidth;
+    // The number of rows of the field.
+    private final int fieldDepth;
+    // The largest value of a pixel, standing for a probability of 1.
+    private final double maxValue;
+    // The column of the map each column of the field falls on.
+    private final int[] rasterColumns;
+    // The last row read from the map.
+    private final int[] rasterRow;
+    // The number of rows read from the map so far.
+    private int rasterRowsRead;
+    // The next row of the field.
+    private int fieldRow;
+
+    /**
+     * Prepare the reading of a map over a field.
+     *
+     * @param rasterDepth (int) The number of rows of the map.
+     * @param rasterWidth (int) The number of columns of the map.
+     * @param maxValue (int) The largest value of a pixel.
+     * @param fieldDepth (int) The number of rows of the field.
+     * @param fieldWidth (int) The number of columns of the field.
+     * @throws IOException If the map is empty or its largest value is not positive.
+     */
+    protected DensityRaster(int rasterDepth, int rasterWidth, int maxValue, int fieldDepth, int fieldWidth) throws IOException
+    {
+        if (rasterDepth <= 0 || rasterWidth <= 0 || maxValue <= 0) {
+            throw new IOException("Invalid density map: " + rasterWidth + " x " + rasterDepth + " pixels, largest value " + maxValue);
+        }
+        this.rasterDepth = rasterDepth;
+        this.rasterWidth = rasterWidth;
+        this.fieldDepth = fieldDepth;
+        this.maxValue = maxValue;
+        rasterColumns = new int[fieldWidth];
+        for (int col = 0; col < fieldWidth; col++) {
+            rasterColumns[col] = (int) ((long) col * rasterWidth / fieldWidth);
+        }
+        rasterRow = new int[rasterWidth];
+    }
+
+    /**
+     * Open a density map, in the format given by the extension of its file.
+     *
+     * @param path (Path) The file of the map.
+     * @param fieldDepth (int) The number of rows of the field the map is spread over.
+     * @param fieldWidth (int) The number of columns of the field the map is spread over.
+     * @return (DensityRaster) The map, ready to read its first row.
+     * @throws IOException If the file can not be read or is not a map in its format.
+     */
+    public static DensityRaster open(Path path, int fieldDepth, int fieldWidth) throws IOException
+    {
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".pgm")) {
+            return openGreyMap(path, fieldDepth, fieldWidth);
+        }
+        if (name.endsWith(".raw") || name.endsWith(".bin")) {
+            return openRaw(path, fieldDepth, fieldWidth);
+        }
+        BufferedImage image = ImageIO.read(path.toFile());
+        if (image == null) {
+            throw new IOException("Unknown image format: " + path);
+        }
+        return new ImageRaster(image.getRaster(), fieldDepth, fieldWidth);
+    }
+
+    /**
+     * Fill an array with the probabilities of the cells of the next row of the field.
+     *
+     * @param densities (double[]) The array to fill, of one entry per column of the field.
+     * @throws IOException If the map could not be read.
+     */
+    public void readRow(double[] densities) throws IOException
+    {
+        if (fieldRow >= fieldDepth) {
+            throw new IllegalStateException("Every row of the field has already been read");
+        }
+        int wantedRow = (int) ((long) fieldRow * rasterDepth / fieldDepth);
+        while (rasterRowsRead <= wantedRow) {
+            readRasterRow(rasterRow);
+            rasterRowsRead++;
+        }
+        for (int col = 0; col < densities.length; col++) {
+            densities[col] = Math.min(1.0, rasterRow[rasterColumns[col]] / maxValue);
+        }
+        fieldRow++;
+    }
+
+    /**
+     * Read the next row of the map.
+     *
+     * @param values (int[]) The array to fill with the values of the row, of one entry per column of the map.
+     * @throws IOException If the row could not be read.
+     */
+    protected abstract void readRasterRow(int[] values) throws IOException;
+
+    /**
+     * Open a grey map, reading its header.
+     *
+     * @param path (Path) The file of the map.
+     * @param fieldDepth (int) The number of rows of the field.
+     * @param fieldWidth (int) The number of columns of the field.
+     * @return (DensityRaster) The map.
+     * @throws IOException If the file can not be read or is not a grey map.
+     */
+    private static DensityRaster openGreyMap(Path path, int fieldDepth, int fieldWidth) throws IOException
+    {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+        try {
+            int first = in.read();
+            int second = in.read();
+            if (first != 'P' || (second != '5' && second != '2')) {
+                throw new IOException("Not a grey map (P2 or P5): " + path);
+            }
+            int width = readHeaderNumber(in);
+            int depth = readHeaderNumber(in);
+            int maxValue = readHeaderNumber(in);
+            if (second == '2') {
+                return new TextRaster(in, depth, width, maxValue, fieldDepth, fieldWidth);
+            }
+            if (maxValue > 0xFFFF) {
+                throw new IOException("Grey map values larger than 16 bits: " + path);
+            }
+            return new StreamRaster(in, depth, width, (maxValue > 0xFF) ? 2 : 1, maxValue, fieldDepth, fieldWidth);
+        }
+        catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a raw map, matching the field cell for cell.
+     *
+     * @param path (Path) The file of the map.
+     * @param fieldDepth (int) The number of rows of the field.
+     * @param fieldWidth (int) The number of columns of the field.
+     * @return (DensityRaster) The map.
+     * @throws IOException If the file can not be read or does not hold one or two bytes per cell.
+     */
+    private static DensityRaster openRaw(Path path, int fieldDepth, int fieldWidth) throws IOException
+    {
+        long cells = (long) fieldDepth * fieldWidth;
+        long size = Files.size(path);
+        if (size != cells && size != 2 * cells) {
+            throw new IOException("A raw density map of a " + fieldDepth + " x " + fieldWidth + " field holds " + cells
+                    + " or " + (2 * cells) + " bytes, " + path + " holds " + size);
+        }
+        int bytesPerValue = (size == cells) ? 1 : 2;
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+        return new StreamRaster(in, fieldDepth, fieldWidth, bytesPerValue, (bytesPerValue == 1) ? 0xFF : 0xFFFF, fieldDepth, fieldWidth);
+    }
+
+    /**
+     * Read a number of the header of a grey map, skipping the white space and comments before it
+     * and the white space character after it.
+     *
+     * @param in (InputStream) The stream of the file.
+     * @return (int) The number.
+     * @throws IOException If the stream ends or does not hold a number.
+     */
+    private static int readHeaderNumber(InputStream in) throws IOException
+    {
+        int c = in.read();
+        while (c == '#' || Character.isWhitespace(c)) {
+            if (c == '#') {
+                while (c != '\n' && c != '\r' && c != -1) {
+                    c = in.read();
+                }
+            }
+            c = in.read();
+        }
+        if (c < '0' || c > '9') {
+            throw new IOException("Invalid grey map header");
+        }
+        long number = 0;
+        while (c >= '0' && c <= '9') {
+            number = number * 10 + (c - '0');
+            if (number > Integer.MAX_VALUE) {
+                throw new IOException("Invalid grey map header");
+            }
+            c = in.read();
+        }
+        return (int) number;
+    }
+
+    /**
+     * A map of binary values read from a stream, row after row.
+     */
+    private static class StreamRaster extends DensityRaster
+    {
+        // The stream the values are read from.
+        private final InputStream in;
+        // The bytes of a row.
+        private final byte[] bytes;
+        // The number of bytes of a value, 1 or 2.
+        private final int bytesPerValue;
+
+        /**
+         * @param in (InputStream) The stream, at the start of the values.
+         * @param depth (int) The number of rows of the map.
+         * @param width (int) The number of columns of the map.
+         * @param bytesPerValue (int) The number of bytes of a value, 1 or 2 (big-endian).
+         * @param maxValue (int) The largest value of a pixel.
+         * @param fieldDepth (int) The number of rows of the field.
+         * @param fieldWidth (int) The number of columns of the field.
+         * @throws IOException If the map is empty.
+         */
+        StreamRaster(InputStream in, int depth, int width, int bytesPerValue, int maxValue, int fieldDepth, int fieldWidth) throws IOException
+        {
+            super(depth, width, maxValue, fieldDepth, fieldWidth);
+            this.in = in;
+            this.bytesPerValue = bytesPerValue;
+            bytes = new byte[width * bytesPerValue];
+        }
+
+        protected void readRasterRow(int[] values) throws IOException
+        {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) {
+                    throw new EOFException("The density map ends before its last row");
+                }
+                read += n;
+            }
+            if (bytesPerValue == 1) {
+                for (int col = 0; col < values.length; col++) {
+                    values[col] = bytes[col] & 0xFF;
+                }
+            }
+            else {
+                for (int col = 0; col < values.length; col++) {
+                    values[col] = ((bytes[2 * col] & 0xFF) << 8) | (bytes[2 * col + 1] & 0xFF);
+                }
+            }
+        }
+
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * A map of values written as text, separated by white space.
+     */
+    private static class TextRaster extends DensityRaster
+    {
+        // The stream the values are read from.
+        private final InputStream in;
+
+        /**
+         * @param in (InputStream) The stream, at the start of the values.
+         * @param depth (int) The number of rows of the map.
+         * @param width (int) The number of columns of the map.
+         * @param maxValue (int) The largest value of a pixel.
+         * @param fieldDepth (int) The number of rows of the field.
+         * @param fieldWidth (int) The number of columns of the field.
+         * @throws IOException If the map is empty.
+         */
+        TextRaster(InputStream in, int depth, int width, int maxValue, int fieldDepth, int fieldWidth) throws IOException
+        {
+            super(depth, width, maxValue, fieldDepth, fieldWidth);
+            this.in = in;
+        }
+
+        protected void readRasterRow(int[] values) throws IOException
+        {
+            for (int col = 0; col < values.length; col++) {
+                values[col] = readHeaderNumber(in);
+            }
+        }
+
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * A map decoded by ImageIO.
+     */
+    private static class ImageRaster extends DensityRaster
+    {
+        // The pixels of the image.
+        private final Raster pixels;
+        // The next row of the image.
+        private int row;
+
+        /**
+         * @param pixels (Raster) The pixels of the image.
+         * @param fieldDepth (int) The number of rows of the field.
+         * @param fieldWidth (int) The number of columns of the field.
+         * @throws IOException If the image is empty.
+         */
+        ImageRaster(Raster pixels, int fieldDepth, int fieldWidth) throws IOException
+        {
+            super(pixels.getHeight(), pixels.getWidth(), (1 << pixels.getSampleModel().getSampleSize(0)) - 1, fieldDepth, fieldWidth);
+            this.pixels = pixels;
+        }
+
+        protected void readRasterRow(int[] values)
+        {
+            pixels.getSamples(pixels.getMinX(), pixels.getMinY() + row, values.length, 1, 0, values);
+            row++;
+        }
+
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * The engines available to run a simulation. The engine is chosen when the simulation is built.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public enum EngineType
+{
+    // Every individual is an object (Animal, Predator or Plant) held in a list.
+    OBJECT,
+    // Individuals are stored as columns of primitive arrays, for very large populations.
+    COMPACT,
+    // Every individual is an object, and the field is cut into tiles processed on several threads.
+    PARALLEL;
+
+    /**
+     * Create an engine of this type.
+     *
+     * @param field (Field) The field in which the species will evolve.
+     * @param seed (long) The seed of the simulation, keying the random streams of the individuals.
+     * @return (SimulationEngine) The created engine, holding no individuals yet.
+     */
+    public SimulationEngine createEngine(Field field, long seed)
+    {
+        if (this == COMPACT) {
+            return new CompactEngine(field, seed);
+        }
+        else if (this == PARALLEL) {
+            return new ParallelEngine(field, seed);
+        }
+        return new ObjectEngine(field, seed);
+    }
+}
@@ -1,20 +1,41 @@
+import java.awt.GraphicsEnvironment;
+
 import static javax.swing.JOptionPane.*;
 
 /**
  * A helper class for other classes to be able to meaningfully
  * communicate errors with the user through message dialogues.
+ * When there is no display, or when the simulation is run headless,
+ * messages are printed on the standard error stream instead.
  *
  * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
  * @version 2022.03.02
  */
 public class ErrorThrower
 {
+    // Whether messages are printed rather than shown in a dialogue.
+    private static volatile boolean printMessages = GraphicsEnvironment.isHeadless();
+
+    /**
+     * Choose whether messages are printed on the standard error stream rather than shown in a dialogue.
+     *
+     * @param print (boolean) true to print the messages.
+     */
+    public static void setPrintMessages(boolean print) {
+        printMessages = print;
+    }
+
     /**
      * Communicates a specific message to the user through a message dialogue.
      *
      * @param message (String) The message to be passed to the user.
      */
     public void throwMessage(String message) {
-        showMessageDialog(null, message);
+        if (printMessages) {
+            System.err.println(message);
+        }
+        else {
+            showMessageDialog(null, message);
+        }
     }
 }
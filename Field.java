@@ -1,10 +1,24 @@
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represent a rectangular grid of field positions. Each position is able to store a single animal.
+ *
+ * The field keeps track of the cells that changed: cells are grouped in blocks of DIRTY_BLOCK_SIZE
+ * consecutive cells, and a block is marked dirty whenever one of its cells is placed or cleared.
+ * The simulator resets the marks at the start of each step, so that observers only need to look at
+ * the dirty blocks to follow the changes. Each block has its own byte, so threads working on
+ * different cells can mark blocks at the same time.
+ *
+ * The field also counts the living individuals of each species, on and off the grid: individuals
+ * report their birth, death, die-back and regrowth, so counts never require a pass over the grid.
+ *
+ * A field can hold up to MAX_CELL_COUNT cells. Fields of up to MAX_SHARED_LOCATIONS cells create
+ * one Location per cell up front and hand it out every time; larger fields create Locations when
+ * asked, as a Location per cell would cost more memory than the cells themselves.
  * 
  * @author David J. Barnes and Michael Kölling, Ali Alkhars (K20055566) and Anton Sirgue (K21018741).
  * @version 2022.02.28
@@ -14,22 +28,96 @@ public class Field
     // A random number generator for providing random locations.
     private static final Random rand = Randomizer.getRandom();
     
+    // Kind codes stored for each cell alongside its occupant.
+    public static final byte EMPTY = 0;
+    public static final byte PLANT = 1;
+    public static final byte PREY = 2;
+    public static final byte PREDATOR = 3;
+
+    // Row and column offsets of the eight neighbours of a cell.
+    private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    // The number of neighbour orderings drawn from the 8! possible ones.
+    private static final int ORDERING_COUNT = 256;
+    // The seed of the shuffles building the orderings, fixed so that the table is the same on every run.
+    private static final long ORDERINGS_SEED = 1111;
+    // Random orderings of the eight offsets, one is picked for each neighbour visit.
+    private static final byte[][] ORDERINGS = createOrderings();
+    // The number of consecutive cells sharing a dirty mark, a power of two.
+    public static final int DIRTY_BLOCK_SIZE = 64;
+    // log2 of DIRTY_BLOCK_SIZE, to find the block of a cell.
+    private static final int DIRTY_BLOCK_SHIFT = 6;
+    // The largest number of cells of a field, the largest array the JVM reliably allocates.
+    public static final int MAX_CELL_COUNT = Integer.MAX_VALUE - 8;
+    // The largest field for which a Location is created up front for each cell.
+    private static final int MAX_SHARED_LOCATIONS = 1 << 22;
+
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the animals.
-    private Object[][] field;
+    // Storage for the animals, one entry per cell indexed by row * width + col.
+    private Object[] cells;
+    // The kind of the occupant of each cell, kept in step with cells.
+    private byte[] kinds;
+    // One shared Location per cell, handed out instead of creating new ones, or null for large fields.
+    private Location[] locations;
+    // For each block of cells, 1 if one of its cells changed since the marks were last reset.
+    private byte[] dirtyBlocks;
+    // The number of living individuals of each species, indexed by species id (null for ids not met yet).
+    // Adders rather than plain counters, as the individuals of a species may be born and die on several threads at once.
+    private volatile LongAdder[] populations;
+    // The number of living plants of each species that died back and are not on the grid, indexed by species id.
+    private volatile LongAdder[] dormantPopulations;
+    // The name of each species met so far, indexed by species id.
+    private volatile String[] speciesNames;
+    // The number of deaths of each species by cause, indexed by species id then by the ordinal of the cause.
+    private volatile LongAdder[][] deaths;
+    // The number of individuals born in the field since it was created, all species together.
+    private final LongAdder births;
 
     /**
      * Represent a field of the given dimensions.
      *
      * @param depth The depth of the field.
      * @param width The width of the field.
+     * @throws IllegalArgumentException If a dimension is not positive or the field has more than MAX_CELL_COUNT cells.
      */
     public Field(int depth, int width)
     {
+        checkSize(depth, width);
         this.depth = depth;
         this.width = width;
-        field = new Object[depth][width];
+        int cellCount = depth * width;
+        cells = new Object[cellCount];
+        kinds = new byte[cellCount];
+        dirtyBlocks = new byte[(cellCount + DIRTY_BLOCK_SIZE - 1) >>> DIRTY_BLOCK_SHIFT];
+        populations = new LongAdder[0];
+        dormantPopulations = new LongAdder[0];
+        speciesNames = new String[0];
+        deaths = new LongAdder[0][];
+        births = new LongAdder();
+        if(cellCount <= MAX_SHARED_LOCATIONS) {
+            locations = new Location[cellCount];
+            for(int cell = 0; cell < cellCount; cell++) {
+                locations[cell] = new Location(getRowOf(cell), getColOf(cell));
+            }
+        }
+    }
+
+    /**
+     * Check that a field of the given dimensions can be created.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @throws IllegalArgumentException If a dimension is not positive or the field would have more than MAX_CELL_COUNT cells.
+     */
+    public static void checkSize(int depth, int width)
+    {
+        if(depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("The field must be at least 1 x 1, got " + depth + " x " + width);
+        }
+        if((long) depth * width > MAX_CELL_COUNT) {
+            throw new IllegalArgumentException("The field can have at most " + MAX_CELL_COUNT + " cells, got " + depth + " x " + width);
+        }
     }
     
     /**
@@ -37,11 +125,9 @@ public class Field
      */
     public void clear()
     {
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = null;
-            }
-        }
+        Arrays.fill(cells, null);
+        Arrays.fill(kinds, EMPTY);
+        Arrays.fill(dirtyBlocks, (byte) 1);
     }
     
     /**
@@ -51,7 +137,19 @@ public class Field
      */
     public void clear(Location location)
     {
-        field[location.getRow()][location.getCol()] = null;
+        clear(getCellIndex(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Clear the given cell.
+     *
+     * @param cell The index of the cell to clear.
+     */
+    public void clear(int cell)
+    {
+        cells[cell] = null;
+        kinds[cell] = EMPTY;
+        dirtyBlocks[cell >>> DIRTY_BLOCK_SHIFT] = 1;
     }
     
     /**
@@ -63,7 +161,7 @@ public class Field
      */
     public void place(Object species, int row, int col)
     {
-        place(species, new Location(row, col));
+        place(species, getCellIndex(row, col));
     }
     
     /**
@@ -74,7 +172,268 @@ public class Field
      */
     public void place(Object species, Location location)
     {
-        field[location.getRow()][location.getCol()] = species;
+        place(species, getCellIndex(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Place an animal in the given cell. If there is already an animal in the cell it will be lost.
+     *
+     * @param species The animal to be placed.
+     * @param cell The index of the cell, as returned by getCellIndex.
+     */
+    public void place(Object species, int cell)
+    {
+        cells[cell] = species;
+        kinds[cell] = kindOf(species);
+        dirtyBlocks[cell >>> DIRTY_BLOCK_SHIFT] = 1;
+    }
+
+    /**
+     * @return The number of blocks of DIRTY_BLOCK_SIZE cells, the last one may be shorter.
+     */
+    public int getBlockCount()
+    {
+        return dirtyBlocks.length;
+    }
+
+    /**
+     * Tell whether a cell of the given block was placed or cleared since the marks were last reset.
+     * Block b holds the cells from b * DIRTY_BLOCK_SIZE (inclusive) to (b + 1) * DIRTY_BLOCK_SIZE (exclusive).
+     *
+     * @param block The index of the block.
+     * @return true if the block is dirty.
+     */
+    public boolean isBlockDirty(int block)
+    {
+        return dirtyBlocks[block] != 0;
+    }
+
+    /**
+     * Count a new living individual. Called when an individual is created, before or after it is placed.
+     *
+     * @param individual The individual, or the definition of its species.
+     */
+    public void countBirth(Occupant individual)
+    {
+        int id = individual.getSpeciesId();
+        LongAdder[] counts = populations;
+        if(id >= counts.length || counts[id] == null) {
+            addSpecies(id, individual.getName());
+            counts = populations;
+        }
+        counts[id].increment();
+        births.increment();
+    }
+
+    /**
+     * Count the death of a living individual.
+     *
+     * @param speciesId The species id of the individual.
+     * @param cause Why the individual died.
+     */
+    public void countDeath(int speciesId, DeathCause cause)
+    {
+        populations[speciesId].decrement();
+        deaths[speciesId][cause.ordinal()].increment();
+    }
+
+    /**
+     * Count a plant that died back: it stays alive but leaves the grid until it regrows.
+     *
+     * @param speciesId The species id of the plant.
+     */
+    public void countDieBack(int speciesId)
+    {
+        dormantPopulations[speciesId].increment();
+    }
+
+    /**
+     * Count a plant that regrew after dying back.
+     *
+     * @param speciesId The species id of the plant.
+     */
+    public void countRegrowth(int speciesId)
+    {
+        dormantPopulations[speciesId].decrement();
+    }
+
+    /**
+     * @param speciesId The id of a species.
+     * @return The number of living individuals of the species, including the plants that died back.
+     */
+    public int getPopulation(int speciesId)
+    {
+        LongAdder[] counts = populations;
+        if(speciesId >= counts.length || counts[speciesId] == null) {
+            return 0;
+        }
+        return counts[speciesId].intValue();
+    }
+
+    /**
+     * @param speciesId The id of a species.
+     * @return The number of plants of the species that died back and are waiting to regrow.
+     */
+    public int getDormantPopulation(int speciesId)
+    {
+        LongAdder[] counts = dormantPopulations;
+        if(speciesId >= counts.length || counts[speciesId] == null) {
+            return 0;
+        }
+        return counts[speciesId].intValue();
+    }
+
+    /**
+     * @return The number of individuals counted as born in the field, all species together.
+     */
+    public long getTotalBirths()
+    {
+        return births.sum();
+    }
+
+    /**
+     * @return The number of individuals counted as dead in the field, all species and causes together.
+     */
+    public long getTotalDeaths()
+    {
+        long total = 0;
+        for(LongAdder[] speciesDeaths : deaths) {
+            if(speciesDeaths != null) {
+                for(LongAdder count : speciesDeaths) {
+                    total += count.sum();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param speciesId The id of a species.
+     * @param cause A cause of death.
+     * @return The number of individuals of the species that died of the cause since the field was created.
+     */
+    public long getDeaths(int speciesId, DeathCause cause)
+    {
+        LongAdder[][] counts = deaths;
+        if(speciesId >= counts.length || counts[speciesId] == null) {
+            return 0;
+        }
+        return counts[speciesId][cause.ordinal()].sum();
+    }
+
+    /**
+     * Set the deaths of a species, as they were when a checkpoint was saved.
+     *
+     * @param speciesId The id of the species.
+     * @param name The name of the species.
+     * @param deathsByCause The number of deaths of each cause, indexed by the ordinal of the cause.
+     */
+    public void restoreDeaths(int speciesId, String name, long[] deathsByCause)
+    {
+        addSpecies(speciesId, name);
+        LongAdder[] counts = deaths[speciesId];
+        for(int cause = 0; cause < Math.min(counts.length, deathsByCause.length); cause++) {
+            counts[cause].reset();
+            counts[cause].add(deathsByCause[cause]);
+        }
+    }
+
+    /**
+     * Set the number of births, as it was when a checkpoint was saved.
+     *
+     * @param totalBirths The number of individuals born in the field, all species together.
+     */
+    public void restoreTotalBirths(long totalBirths)
+    {
+        births.reset();
+        births.add(totalBirths);
+    }
+
+    /**
+     * @param speciesId The id of a species.
+     * @return The name of the species, or null if no individual of the species was ever born in the field.
+     */
+    public String getSpeciesName(int speciesId)
+    {
+        String[] names = speciesNames;
+        return (speciesId < names.length) ? names[speciesId] : null;
+    }
+
+    /**
+     * @return One more than the highest species id met so far, the bound of the ids to read the counters of.
+     */
+    public int getSpeciesIdBound()
+    {
+        return populations.length;
+    }
+
+    /**
+     * @param speciesName The name of a species.
+     * @return The id of the species, or -1 if no individual of the species was ever born in the field.
+     */
+    public int getSpeciesId(String speciesName)
+    {
+        String[] names = speciesNames;
+        for(int id = 0; id < names.length; id++) {
+            if(speciesName.equals(names[id])) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The number of species having at least one living individual.
+     */
+    public int getLivingSpeciesCount()
+    {
+        LongAdder[] counts = populations;
+        int living = 0;
+        for(LongAdder count : counts) {
+            if(count != null && count.sum() > 0) {
+                living++;
+            }
+        }
+        return living;
+    }
+
+    /**
+     * Create the counters of a species met for the first time. The arrays are replaced rather than changed,
+     * so that the counting methods can read them without locking.
+     *
+     * @param id The id of the species.
+     * @param name The name of the species.
+     */
+    private synchronized void addSpecies(int id, String name)
+    {
+        if(id < populations.length && populations[id] != null) {
+            return;
+        }
+        int length = Math.max(id + 1, populations.length);
+        LongAdder[] counts = Arrays.copyOf(populations, length);
+        LongAdder[] dormantCounts = Arrays.copyOf(dormantPopulations, length);
+        String[] names = Arrays.copyOf(speciesNames, length);
+        LongAdder[][] deathCounts = Arrays.copyOf(deaths, length);
+        counts[id] = new LongAdder();
+        dormantCounts[id] = new LongAdder();
+        names[id] = name;
+        deathCounts[id] = new LongAdder[DeathCause.COUNT];
+        for(int cause = 0; cause < DeathCause.COUNT; cause++) {
+            deathCounts[id][cause] = new LongAdder();
+        }
+        // The populations are published last, a reader seeing the new species also sees its other arrays.
+        dormantPopulations = dormantCounts;
+        speciesNames = names;
+        deaths = deathCounts;
+        populations = counts;
+    }
+
+    /**
+     * Mark every block as clean. Called by the simulator at the start of each step, while no individual acts.
+     */
+    public void resetDirtyBlocks()
+    {
+        Arrays.fill(dirtyBlocks, (byte) 0);
     }
     
     /**
@@ -97,7 +456,106 @@ public class Field
      */
     public Object getObjectAt(int row, int col)
     {
-        return field[row][col];
+        return cells[getCellIndex(row, col)];
+    }
+
+    /**
+     * Return the animal in the given cell, if any.
+     *
+     * @param cell The index of the cell, as returned by getCellIndex.
+     * @return The animal in the given cell, or null if there is none.
+     */
+    public Object getObjectAt(int cell)
+    {
+        return cells[cell];
+    }
+
+    /**
+     * Return the location of the given position. Unless the field is very large, it keeps a single Location
+     * for each of its cells, so the same object is returned every time and no new Location needs to be created.
+     *
+     * @param row The row of the location.
+     * @param col The column of the location.
+     * @return The location.
+     */
+    public Location getLocation(int row, int col)
+    {
+        return (locations != null) ? locations[getCellIndex(row, col)] : new Location(row, col);
+    }
+
+    /**
+     * Return the location of the given cell.
+     *
+     * @param cell The index of the cell, as returned by getCellIndex.
+     * @return The location of the cell.
+     */
+    public Location getLocation(int cell)
+    {
+        return (locations != null) ? locations[cell] : new Location(getRowOf(cell), getColOf(cell));
+    }
+
+    /**
+     * Return the kind of the occupant of the given cell.
+     *
+     * @param cell The index of the cell, as returned by getCellIndex.
+     * @return One of EMPTY, PLANT, PREY or PREDATOR.
+     */
+    public byte getKindAt(int cell)
+    {
+        return kinds[cell];
+    }
+
+    /**
+     * Return the index of the cell at the given position. Cells are numbered row by row, so scanning the indexes
+     * in order walks the grid in memory order.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the cell.
+     */
+    public int getCellIndex(int row, int col)
+    {
+        return row * width + col;
+    }
+
+    /**
+     * @param cell The index of a cell.
+     * @return The row of the cell.
+     */
+    public int getRowOf(int cell)
+    {
+        return cell / width;
+    }
+
+    /**
+     * @param cell The index of a cell.
+     * @return The column of the cell.
+     */
+    public int getColOf(int cell)
+    {
+        return cell % width;
+    }
+
+    /**
+     * @return The number of cells in the field.
+     */
+    public int getCellCount()
+    {
+        return cells.length;
+    }
+
+    /**
+     * Work out the kind code of an object about to be placed in the field.
+     *
+     * @param species The object to classify.
+     * @return The kind code for the object.
+     */
+    private static byte kindOf(Object species)
+    {
+        if(species instanceof Occupant) {
+            return ((Occupant) species).getKind();
+        }
+        return EMPTY;
     }
     
     /**
@@ -109,8 +567,17 @@ public class Field
      */
     public Location randomAdjacentLocation(Location location)
     {
-        List<Location> adjacent = adjacentLocations(location);
-        return adjacent.get(0);
+        int row = location.getRow();
+        int col = location.getCol();
+        byte[] ordering = randomOrdering();
+        for(int i = 0; i < ordering.length; i++) {
+            int nextRow = row + ROW_OFFSETS[ordering[i]];
+            int nextCol = col + COL_OFFSETS[ordering[i]];
+            if(isInside(nextRow, nextCol)) {
+                return getLocation(nextRow * width + nextCol);
+            }
+        }
+        return location;
     }
     
     /**
@@ -141,16 +608,64 @@ public class Field
      */
     public Location freeAdjacentLocation(Location location)
     {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
+        int cell = freeAdjacentCell(getCellIndex(location.getRow(), location.getCol()));
+        if(cell >= 0) {
+            return getLocation(cell);
         }
         else {
             return null;
         }
     }
 
+    /**
+     * Find a random free cell adjacent to the given cell without creating any objects.
+     *
+     * @param cell The index of the cell from which to look.
+     * @return The index of a free adjacent cell, or -1 if there is none.
+     */
+    public int freeAdjacentCell(int cell)
+    {
+        int row = getRowOf(cell);
+        int col = getColOf(cell);
+        byte[] ordering = randomOrdering();
+        for(int i = 0; i < ordering.length; i++) {
+            int nextRow = row + ROW_OFFSETS[ordering[i]];
+            int nextCol = col + COL_OFFSETS[ordering[i]];
+            if(isInside(nextRow, nextCol)) {
+                int next = nextRow * width + nextCol;
+                if(cells[next] == null) {
+                    return next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write the indexes of the cells adjacent to the given one into the buffer, in a random order.
+     * The cell itself is not included and all cells lie within the grid. Nothing is allocated, so
+     * callers should keep their buffer and reuse it between calls.
+     *
+     * @param cell The index of the cell from which to generate adjacencies.
+     * @param buffer Receives the adjacent cell indexes, must have room for at least eight entries.
+     * @return The number of adjacent cells written to the buffer.
+     */
+    public int adjacentCells(int cell, int[] buffer)
+    {
+        int row = getRowOf(cell);
+        int col = getColOf(cell);
+        byte[] ordering = randomOrdering();
+        int count = 0;
+        for(int i = 0; i < ordering.length; i++) {
+            int nextRow = row + ROW_OFFSETS[ordering[i]];
+            int nextCol = col + COL_OFFSETS[ordering[i]];
+            if(isInside(nextRow, nextCol)) {
+                buffer[count++] = nextRow * width + nextCol;
+            }
+        }
+        return count;
+    }
+
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
@@ -166,26 +681,60 @@ public class Field
         if(location != null) {
             int row = location.getRow();
             int col = location.getCol();
-            for(int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
-                if(nextRow >= 0 && nextRow < depth) {
-                    for(int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
-                        // Exclude invalid locations and the original location.
-                        if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
-                        }
-                    }
+            // The ordering is already random, several other methods rely on the list being in a random order.
+            byte[] ordering = randomOrdering();
+            for(int i = 0; i < ordering.length; i++) {
+                int nextRow = row + ROW_OFFSETS[ordering[i]];
+                int nextCol = col + COL_OFFSETS[ordering[i]];
+                if(isInside(nextRow, nextCol)) {
+                    locations.add(getLocation(nextRow * width + nextCol));
                 }
             }
-            
-            // Shuffle the list. Several other methods rely on the list
-            // being in a random order.
-            Collections.shuffle(locations, rand);
         }
         return locations;
     }
 
+    /**
+     * @param row A row, possibly outside the field.
+     * @param col A column, possibly outside the field.
+     * @return true if the position lies within the field.
+     */
+    private boolean isInside(int row, int col)
+    {
+        return row >= 0 && row < depth && col >= 0 && col < width;
+    }
+
+    /**
+     * @return One of the pre-built orderings of the neighbour offsets, chosen at random.
+     */
+    private static byte[] randomOrdering()
+    {
+        return ORDERINGS[rand.nextInt(ORDERING_COUNT)];
+    }
+
+    /**
+     * Build the table of neighbour orderings by shuffling the eight offsets ORDERING_COUNT times.
+     * The table is built once per run, before any simulation is seeded, so it uses its own fixed seed.
+     *
+     * @return The table of orderings.
+     */
+    private static byte[][] createOrderings()
+    {
+        Random shuffler = new Random(ORDERINGS_SEED);
+        byte[][] orderings = new byte[ORDERING_COUNT][];
+        for(int i = 0; i < ORDERING_COUNT; i++) {
+            byte[] ordering = {0, 1, 2, 3, 4, 5, 6, 7};
+            for(int j = ordering.length - 1; j > 0; j--) {
+                int k = shuffler.nextInt(j + 1);
+                byte swap = ordering[j];
+                ordering[j] = ordering[k];
+                ordering[k] = swap;
+            }
+            orderings[i] = ordering;
+        }
+        return orderings;
+    }
+
     /**
      * Return the depth of the field.
      * @return The depth of the field.
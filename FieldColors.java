@@ -0,0 +1,213 @@
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The colors of the cells of a field, as displayed by the SimulatorView. The colors are
+ * updated from the blocks the field marked dirty, so following a step costs in proportion to
+ * what changed in it, and the blocks changed since the colors were last taken are remembered.
+ * Each species' color is looked up once and kept as an ARGB value indexed by species id.
+ *
+ * Large fields are shown as an image smaller than the field: with n cells per pixel, the image
+ * has one pixel for each square of n x n cells, showing the cell at the top left of the square.
+ * The colors and changed blocks are then those of the pixels of the image rather than of the cells.
+ *
+ * This is the part of the view run on the simulation thread, it does not need a display.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class FieldColors
+{
+    // The number of species the palette can hold before it first needs to grow.
+    private static final int INITIAL_PALETTE_SIZE = 32;
+
+    // The color of each species, by name.
+    private final Map<String, Color> colors;
+    // The ARGB value of empty cells.
+    private final int emptyArgb;
+    // The color of species that have no color in the map.
+    private final Color unknownColor;
+    // The number of cells of each side of the square of cells shown by a pixel.
+    private final int cellsPerPixel;
+    // The width and depth of the image, in pixels.
+    private int imageWidth, imageDepth;
+    // The ARGB value of each species, indexed by species id, 0 for species not met yet.
+    private int[] palette;
+    // The ARGB color of each pixel.
+    private int[] cellColors;
+    // The species id of the occupant of the cell shown by each pixel, -1 if empty.
+    private int[] cellSpecies;
+    // The blocks of pixels that changed since the changed blocks were last taken.
+    private byte[] changedBlocks;
+
+    /**
+     * Create the colors of a field, all cells being empty until the first call to followChanges.
+     *
+     * @param colors (Map<String, Color>) The color of each species, by name. Read when a species is first met.
+     * @param emptyColor (Color) The color of empty cells.
+     * @param unknownColor (Color) The color of species that have no color in the map.
+     */
+    public FieldColors(Map<String, Color> colors, Color emptyColor, Color unknownColor)
+    {
+        this(colors, emptyColor, unknownColor, 1);
+    }
+
+    /**
+     * Create the colors of an image of a field with several cells per pixel, all pixels being empty
+     * until the first call to followChanges.
+     *
+     * @param colors (Map<String, Color>) The color of each species, by name. Read when a species is first met.
+     * @param emptyColor (Color) The color of empty cells.
+     * @param unknownColor (Color) The color of species that have no color in the map.
+     * @param cellsPerPixel (int) The number of cells of each side of the square of cells shown by a pixel.
+     */
+    public FieldColors(Map<String, Color> colors, Color emptyColor, Color unknownColor, int cellsPerPixel)
+    {
+        this.colors = colors;
+        this.emptyArgb = emptyColor.getRGB();
+        this.unknownColor = unknownColor;
+        this.cellsPerPixel = cellsPerPixel;
+        palette = new int[INITIAL_PALETTE_SIZE];
+    }
+
+    /**
+     * @param cellCount (int) The number of cells along a side of a field.
+     * @param cellsPerPixel (int) The number of cells of each side of the square of cells shown by a pixel.
+     * @return (int) The number of pixels along the same side of the image of the field.
+     */
+    public static int imageSize(int cellCount, int cellsPerPixel)
+    {
+        return (cellCount + cellsPerPixel - 1) / cellsPerPixel;
+    }
+
+    /**
+     * Update the colors and species of the pixels showing a cell in the blocks of the field marked dirty.
+     *
+     * @param field (Field) The field whose colors are kept.
+     */
+    public void followChanges(Field field)
+    {
+        int cellCount = field.getCellCount();
+        int width = field.getWidth();
+        if (cellColors == null) {
+            imageWidth = imageSize(width, cellsPerPixel);
+            imageDepth = imageSize(field.getDepth(), cellsPerPixel);
+            int pixelCount = imageWidth * imageDepth;
+            cellColors = new int[pixelCount];
+            Arrays.fill(cellColors, emptyArgb);
+            cellSpecies = new int[pixelCount];
+            Arrays.fill(cellSpecies, -1);
+            changedBlocks = new byte[(pixelCount + Field.DIRTY_BLOCK_SIZE - 1) / Field.DIRTY_BLOCK_SIZE];
+        }
+        for (int block = 0; block < field.getBlockCount(); block++) {
+            if (!field.isBlockDirty(block)) {
+                continue;
+            }
+            int start = block * Field.DIRTY_BLOCK_SIZE;
+            int end = Math.min(cellCount, start + Field.DIRTY_BLOCK_SIZE);
+            if (cellsPerPixel == 1) {
+                changedBlocks[block] = 1;
+                for (int cell = start; cell < end; cell++) {
+                    followCell(field, cell, cell);
+                }
+            }
+            else {
+                int row = start / width;
+                int col = start % width;
+                for (int cell = start; cell < end; cell++) {
+                    if (row % cellsPerPixel == 0 && col % cellsPerPixel == 0) {
+                        int pixel = (row / cellsPerPixel) * imageWidth + col / cellsPerPixel;
+                        if (followCell(field, cell, pixel)) {
+                            changedBlocks[pixel / Field.DIRTY_BLOCK_SIZE] = 1;
+                        }
+                    }
+                    if (++col == width) {
+                        col = 0;
+                        row++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return (int) The width of the image, in pixels.
+     */
+    public int getImageWidth()
+    {
+        return imageWidth;
+    }
+
+    /**
+     * @return (int) The depth of the image, in pixels.
+     */
+    public int getImageDepth()
+    {
+        return imageDepth;
+    }
+
+    /**
+     * @return (int[]) A copy of the ARGB color of each pixel, row by row.
+     */
+    public int[] copyColors()
+    {
+        return cellColors.clone();
+    }
+
+    /**
+     * Return the blocks that changed since this method was last called, and forget them.
+     *
+     * @return (byte[]) 1 for each block of Field.DIRTY_BLOCK_SIZE pixels that changed, 0 for the others.
+     */
+    public byte[] takeChangedBlocks()
+    {
+        byte[] taken = changedBlocks.clone();
+        Arrays.fill(changedBlocks, (byte) 0);
+        return taken;
+    }
+
+    /**
+     * Update the color of a pixel from the occupant of the cell it shows.
+     *
+     * @param field (Field) The field whose colors are kept.
+     * @param cell (int) The cell shown by the pixel.
+     * @param pixel (int) The index of the pixel.
+     * @return (boolean) true if the species shown by the pixel changed.
+     */
+    private boolean followCell(Field field, int cell, int pixel)
+    {
+        Object specie = field.getObjectAt(cell);
+        int id = (specie != null) ? ((Occupant) specie).getSpeciesId() : -1;
+        if (id == cellSpecies[pixel]) {
+            return false;
+        }
+        cellSpecies[pixel] = id;
+        if (id >= 0) {
+            if (id >= palette.length || palette[id] == 0) {
+                addToPalette((Occupant) specie);
+            }
+            cellColors[pixel] = palette[id];
+        }
+        else {
+            cellColors[pixel] = emptyArgb;
+        }
+        return true;
+    }
+
+    /**
+     * Give the species of an occupant its ARGB value in the palette.
+     *
+     * @param occupant (Occupant) An occupant of a species met for the first time.
+     */
+    private void addToPalette(Occupant occupant)
+    {
+        int id = occupant.getSpeciesId();
+        if (id >= palette.length) {
+            int length = Math.max(id + 1, palette.length * 2);
+            palette = Arrays.copyOf(palette, length);
+        }
+        Color color = colors.get(occupant.getName());
+        palette[id] = (color != null) ? color.getRGB() : unknownColor.getRGB();
+    }
+}
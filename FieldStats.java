@@ -1,88 +1,62 @@
-import java.util.HashMap;
-
 /**
- * This class collects and provides some statistical data on the state 
- * of a field. It is flexible: it will create and maintain a counter 
- * for any name of species that is found in the field.
+ * This class provides some statistical data on the state of a field.
+ * The field counts the living individuals of each species as they are
+ * born, die, die back and regrow, so the statistics are read without
+ * scanning the grid.
  * 
  * @author David J. Barnes, Michael Kölling, Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
- * @version 2022.03.01
+ * @version 2022.03.02
  */
 public class FieldStats
 {
-    // Counters for each type of entity in the simulation.
-    private HashMap<String, Counter> counters;
-    // Whether the counters are currently up to date.
-    private boolean countsValid;
+    // The field whose statistics are provided.
+    private final Field field;
 
     /**
      * Construct a FieldStats object.
-     */
-    public FieldStats()
-    {
-        // Set up a collection for counters for each type of specie that
-        // we might find
-        counters = new HashMap<>();
-        countsValid = true;
-    }
-
-    /**
-     * Check if species count is valid.
      *
-     * @param field (Field) The simulation's field.
+     * @param field (Field) The field whose statistics are provided.
      */
-    public void checkCountIsValid(Field field)
+    public FieldStats(Field field)
     {
-        if(!countsValid) {
-            generateCounts(field);
-        }
+        this.field = field;
     }
+
     /**
-     * Get details of what is in the field.
+     * Get the number of living individuals of a specie, including the plants that died back.
      *
-     * @return (String) A string describing what is in the field.
-     */
-    public int getCount (String speciesName)
-    {
-        Counter info = counters.get(speciesName);
-        return info.getCount();
-    }
-    
-    /**
-     * Invalidate the current set of statistics; reset all counts to zero.
+     * @param speciesName (String) The name of the specie.
+     * @return (int) The number of living individuals, 0 if none was ever born.
      */
-    public void reset()
+    public int getCount(String speciesName)
     {
-        countsValid = false;
-        for(String key : counters.keySet()) {
-            Counter count = counters.get(key);
-            count.reset();
-        }
+        int id = field.getSpeciesId(speciesName);
+        return (id >= 0) ? field.getPopulation(id) : 0;
     }
 
     /**
-     * Increment the count for one specie.
+     * Get the number of plants of a specie that died back and are not in the field until they regrow.
      *
-     * @param specieName (String) The name of specie to increment.
+     * @param speciesName (String) The name of the specie.
+     * @return (int) The number of plants waiting to regrow.
      */
-    public void incrementCount(String specieName)
+    public int getDormantCount(String speciesName)
     {
-        Counter count = counters.get(specieName);
-        if(count == null) {
-            // We do not have a counter for this specie yet.
-            // Create one.
-            count = new Counter(specieName);
-            counters.put(specieName, count);
-        }
-        count.increment();
+        int id = field.getSpeciesId(speciesName);
+        return (id >= 0) ? field.getDormantPopulation(id) : 0;
     }
 
     /**
-     * Indicate that a specie count has been completed.
+     * Get the number of individuals of a specie that died of the given cause since the simulation started.
+     *
+     * @param speciesName (String) The name of the specie.
+     * @param cause (DeathCause) The cause of death.
+     * @return (long) The number of deaths, 0 if no individual of the specie was ever born.
      */
-    public void countFinished()
+    public long getDeathCount(String speciesName, DeathCause cause)
     {
-        countsValid = true;
+        int id = field.getSpeciesId(speciesName);
+        return (id >= 0) ? field.getDeaths(id, cause) : 0;
     }
 
     /**
@@ -90,39 +64,8 @@ public class FieldStats
      *
      * @return (boolean) true If there is more than one species alive.
      */
-    public boolean isViable(Field field)
-    {
-        // How many counts are non-zero.
-        int nonZero = 0;
-        if(!countsValid) {
-            generateCounts(field);
-        }
-        for(String key : counters.keySet()) {
-            Counter info = counters.get(key);
-            if(info.getCount() > 0) {
-                nonZero++;
-            }
-        }
-        return nonZero > 1;
-    }
-    
-    /**
-     * Generate counts of the number of species. These are not kept up to date as species are placed in the field, but only when a request
-     * is made for the information.
-     * @param field (Field) The field to generate the stats for.
-     */
-    private void generateCounts(Field field)
+    public boolean isViable()
     {
-        reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object specie = field.getObjectAt(row, col);
-                if(specie != null) {
-                    Species speciesObject = (Species) specie;
-                    incrementCount(speciesObject.getName());
-                }
-            }
-        }
-        countsValid = true;
+        return field.getLivingSpeciesCount() > 1;
     }
 }
@@ -0,0 +1,107 @@
+import java.util.Random;
+
+/**
+ * Draws uniformly random free cells of a field, each cell at most once, to place many individuals
+ * at random. Drawing a cell takes the same expected time however full the field gets, where
+ * drawing positions until a free one is found slows down without bound as the field fills up.
+ *
+ * While at least a quarter of the cells are free, positions are drawn until a free one is found,
+ * checking a bitmap of the free cells, so a draw takes at most four attempts on average. Once
+ * fewer cells are free, the free cells are listed in an array: a draw picks an entry at random
+ * and moves the last entry into its place. The list is only built when it holds at most one
+ * entry for four cells, so the sampler never takes more memory than the cells' kinds.
+ *
+ * The sampler knows the free cells of the field when it was created, and hands each out at most
+ * once: while it is used, cells must only be taken through it.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class FreeCellSampler
+{
+    // log2 of the number of cells of a word of the bitmap, to find the word of a cell.
+    private static final int WORD_SHIFT = 6;
+    // Positions are drawn at random while at least 1 / SPARSE_RATIO of the cells are free.
+    private static final int SPARSE_RATIO = 4;
+
+    // The number of cells of the field.
+    private final int cellCount;
+    // Bit i of word w is set if cell w * 64 + i is free, null once the free cells are listed.
+    private long[] freeBits;
+    // The free cells, in the first freeCount entries, or null while positions are drawn at random.
+    private int[] freeList;
+    // The number of free cells left.
+    private int freeCount;
+
+    /**
+     * Create a sampler of the cells of a field that are currently empty.
+     *
+     * @param field (Field) The field.
+     */
+    public FreeCellSampler(Field field)
+    {
+        cellCount = field.getCellCount();
+        freeBits = new long[(int) (((long) cellCount + (1 << WORD_SHIFT) - 1) >>> WORD_SHIFT)];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (field.getObjectAt(cell) == null) {
+                freeBits[cell >>> WORD_SHIFT] |= 1L << cell;
+                freeCount++;
+            }
+        }
+    }
+
+    /**
+     * @return (int) The number of free cells left.
+     */
+    public int getFreeCount()
+    {
+        return freeCount;
+    }
+
+    /**
+     * Draw a free cell uniformly at random among the free cells left, and count it as taken.
+     *
+     * @param rand (Random) The generator to draw the cell with.
+     * @return (int) The index of the cell, or -1 if no cell is free.
+     */
+    public int takeRandomCell(Random rand)
+    {
+        if (freeCount == 0) {
+            return -1;
+        }
+        if (freeList == null) {
+            if ((long) freeCount * SPARSE_RATIO >= cellCount) {
+                int cell = rand.nextInt(cellCount);
+                while ((freeBits[cell >>> WORD_SHIFT] & (1L << cell)) == 0) {
+                    cell = rand.nextInt(cellCount);
+                }
+                freeBits[cell >>> WORD_SHIFT] &= ~(1L << cell);
+                freeCount--;
+                return cell;
+            }
+            listFreeCells();
+        }
+        int entry = rand.nextInt(freeCount);
+        int cell = freeList[entry];
+        freeCount--;
+        freeList[entry] = freeList[freeCount];
+        return cell;
+    }
+
+    /**
+     * Replace the bitmap by the list of the free cells, in the order of the cells.
+     */
+    private void listFreeCells()
+    {
+        freeList = new int[freeCount];
+        int entry = 0;
+        for (int word = 0; word < freeBits.length; word++) {
+            long bits = freeBits[word];
+            while (bits != 0) {
+                freeList[entry++] = (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        freeBits = null;
+    }
+}
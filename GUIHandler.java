@@ -56,15 +56,34 @@ public class GUIHandler
      * @param chosenHabitat (String) The name of the chosen habitat.
      * @param selectedAnimals (HashMap<String, Integer>) Key-pair associations of animal names and number of those animals to be created.
      * @param chosenScenario (String) The name of the chosen climate change scenario.
+     * @param depth (int) The number of rows of the grid.
+     * @param width (int) The number of columns of the grid.
      */
-    public void switchToSimulatorView(String chosenHabitat,HashMap<String, Integer> selectedAnimals,String chosenScenario)
+    public void switchToSimulatorView(String chosenHabitat,HashMap<String, Integer> selectedAnimals,String chosenScenario, int depth, int width)
     {
+        simulationInitializer.setFieldSize(depth, width);
         simulatorOnDisplay = simulationInitializer.initializeSimulation(chosenHabitat, selectedAnimals, chosenScenario);
         if (simulatorOnDisplay != null) {
             currentFrame.setVisible(false);
         }
     }
 
+    /**
+     * @return (int) The number of rows of the grid of the next simulation.
+     */
+    public int getFieldDepth()
+    {
+        return simulationInitializer.getFieldDepth();
+    }
+
+    /**
+     * @return (int) The number of columns of the grid of the next simulation.
+     */
+    public int getFieldWidth()
+    {
+        return simulationInitializer.getFieldWidth();
+    }
+
     /**
      * Switch to menu view. This method allows users to launch a new simulation
      * in the same "session". It ends the currently running simulation and creates a totally
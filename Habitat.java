@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -21,6 +22,8 @@ public class Habitat
     private SimulationStep simStep;
     // hold a climate change scenario
     private ClimateScenarios changeScenario;
+    // the temperature change reached by the climate change scenario
+    private double concreteChange;
     // true if the current season is Spring
     private boolean isSpring;
     // A random number generator
@@ -41,6 +44,7 @@ public class Habitat
     {
         this.simStep = simStep;
         this.changeScenario = changeScenario;
+        concreteChange = changeScenario.getInitialChange();
 
         // Season initialisations
         initialiseSeasons(spring, summer, autumn, winter);
@@ -49,6 +53,81 @@ public class Habitat
         climateChangeEffect(); // do the climate change effect on the first season
     }
 
+    /**
+     * Recreate a habitat saved in a checkpoint, with its seasons as they were.
+     *
+     * @param simStep (SimulatorStep) A SimulationStep object to keep track of the steps
+     * @param changeScenario (ClimateScenarios) The climate change scenario
+     * @param concreteChange (double) The temperature change reached by the scenario
+     * @param seasons (List<Season>) The seasons, in the order spring, summer, autumn, winter
+     * @param currentSeasonIndex (int) The index of the current season
+     */
+    private Habitat(SimulationStep simStep, ClimateScenarios changeScenario, double concreteChange, List<Season> seasons, int currentSeasonIndex)
+    {
+        this.simStep = simStep;
+        this.changeScenario = changeScenario;
+        this.concreteChange = concreteChange;
+        this.seasons = seasons;
+        currentSeason = seasons.get(currentSeasonIndex);
+        checkIsSpring();
+    }
+
+    /**
+     * Recreate the habitat saved in a checkpoint by writeTo.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the habitat.
+     * @param simStep (SimulatorStep) A SimulationStep object to keep track of the steps
+     * @return (Habitat) The habitat as it was saved.
+     */
+    public static Habitat readFrom(ByteBuffer buffer, SimulationStep simStep)
+    {
+        ClimateScenarios changeScenario = ClimateScenarios.values()[buffer.get()];
+        double concreteChange = buffer.getDouble();
+        int currentSeasonIndex = buffer.get();
+        int seasonCount = buffer.get();
+        List<Season> seasons = new ArrayList<>();
+        for (int i = 0; i < seasonCount; i++) {
+            Season season = new Season(Checkpoint.getString(buffer), buffer.getInt(), buffer.getInt());
+            season.getCurrentTemp().setTemperature(buffer.getInt());
+            seasons.add(season);
+        }
+        return new Habitat(simStep, changeScenario, concreteChange, seasons, currentSeasonIndex);
+    }
+
+    /**
+     * Save the habitat to a checkpoint: the scenario (byte ordinal), the change it reached (double), the
+     * index of the current season (byte), then the number of seasons (byte) and the name, average
+     * temperature, temperature change and current temperature of each.
+     *
+     * @param buffer (ByteBuffer) The checkpoint.
+     */
+    public void writeTo(ByteBuffer buffer)
+    {
+        buffer.put((byte) changeScenario.ordinal());
+        buffer.putDouble(concreteChange);
+        buffer.put((byte) seasons.indexOf(currentSeason));
+        buffer.put((byte) seasons.size());
+        for (Season season : seasons) {
+            Checkpoint.putString(buffer, season.getName());
+            buffer.putInt(season.getAveTemperature());
+            buffer.putInt(season.getTempChange());
+            buffer.putInt(season.getCurrentTemp().getTemperature());
+        }
+    }
+
+    /**
+     * Follow another climate change scenario from now on. The change reached so far is kept, but
+     * not below the initial change of the new scenario, so that a habitat which did not warm yet
+     * starts warming.
+     *
+     * @param changeScenario (ClimateScenarios) The new scenario
+     */
+    public void setChangeScenario(ClimateScenarios changeScenario)
+    {
+        this.changeScenario = changeScenario;
+        concreteChange = Math.max(concreteChange, changeScenario.getInitialChange());
+    }
+
     /**
      * @return (String) The current season as a String
      */
@@ -98,7 +177,7 @@ public class Habitat
         // 1)
         if(yearPassed())
         {
-            changeScenario.doClimateChange();
+            concreteChange = changeScenario.doClimateChange(concreteChange);
         }
 
         // 2) & 3)
@@ -184,6 +263,6 @@ public class Habitat
      */
     private void climateChangeEffect()
     {
-        currentSeason.incAveTemperature(changeScenario.getClimateChangeEffect());
+        currentSeason.incAveTemperature(changeScenario.getClimateChangeEffect(concreteChange));
     }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs simulations without any window, to use the whole machine on long runs or on servers
+ * with no display. The simulation is built like the GUI builds it, from a habitat, a climate
+ * change scenario and a number of animals of each species, but it is observed by a
+ * ConsoleObserver (or any other SimulationObserver) rather than by a SimulatorView.
+ *
+ * From the command line:
+ *     java HeadlessSimulation habitat scenario steps animal=count|file... [seed=n] [engine=type] [depth=n] [width=n] [report=n] [profile=true] [series=file] [csv=file] [checkpoint=file] [every=n]
+ *     java HeadlessSimulation restore=file steps [engine=type] [report=n] [profile=true] [series=file] [csv=file] [checkpoint=file] [every=n]
+ * for instance:
+ *     java HeadlessSimulation savanna medium 2000 tiger=50 rhino=200 seed=42 report=100
+ * The grid has depth rows and width columns, 80 x 120 unless given. An animal given a file rather
+ * than a count is placed from the density map in the file (see DensityRaster). With profile=true, the steps are timed by a StepProfiler, registered as an MXBean during the
+ * run and whose summary is printed at the end. With series=file and csv=file, the counts of
+ * every step are written to a binary file (see BinarySeriesWriter) and to a CSV file. With
+ * checkpoint=file, the simulation is saved to the file (see Checkpoint) every n steps and when
+ * the run ends; restore=file continues a saved simulation for the given number of steps.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class HeadlessSimulation
+{
+    // The number of steps between two printed statuses when not given.
+    private static final int DEFAULT_REPORT_INTERVAL = 100;
+    // The usage printed when the arguments are wrong.
+    private static final String USAGE = "usage: java HeadlessSimulation habitat scenario steps animal=count|file... [seed=n] [engine=OBJECT|COMPACT|PARALLEL] [depth=n] [width=n] [report=n] [profile=true] [series=file] [csv=file] [checkpoint=file] [every=n]"
+            + System.lineSeparator() + "       java HeadlessSimulation restore=file steps [engine=OBJECT|COMPACT|PARALLEL] [report=n] [profile=true] [series=file] [csv=file] [checkpoint=file] [every=n]";
+
+    // Builds the simulations.
+    private final Initializer initializer;
+
+    /**
+     * Create a runner building its simulations with the default engine and a new seed for each.
+     */
+    public HeadlessSimulation()
+    {
+        initializer = new Initializer(false);
+    }
+
+    /**
+     * Choose the engine used by the simulations created from now on.
+     *
+     * @param engineType (EngineType) The type of engine to use.
+     */
+    public void setEngineType(EngineType engineType)
+    {
+        initializer.setEngineType(engineType);
+    }
+
+    /**
+     * Choose the size of the grid of the simulations created from now on.
+     *
+     * @param depth (int) The number of rows of the grid.
+     * @param width (int) The number of columns of the grid.
+     * @throws IllegalArgumentException If the grid would be empty or larger than Field.MAX_CELL_COUNT cells.
+     */
+    public void setFieldSize(int depth, int width)
+    {
+        initializer.setFieldSize(depth, width);
+    }
+
+    /**
+     * Place the animals of the given species from density maps in the simulations created from now on.
+     *
+     * @param rasters (Map<String, Path>) The file of the density map of each animal, by animal name (see DensityRaster).
+     */
+    public void setDensityRasters(Map<String, Path> rasters)
+    {
+        initializer.setDensityRasters(rasters);
+    }
+
+    /**
+     * Run the simulations created from now on with the given seed.
+     *
+     * @param seed (Long) The seed to use, or null to pick a new seed for each simulation.
+     */
+    public void setSeed(Long seed)
+    {
+        initializer.setSeed(seed);
+    }
+
+    /**
+     * Build a simulation, ready to be run.
+     *
+     * @param habitat (String) The name of the habitat.
+     * @param scenario (String) The name of the climate change scenario.
+     * @param animals (HashMap<String, Integer>) Keys are the animals' names and values are the number of each animal to create.
+     * @param observer (SimulationObserver) The observer receiving the state of the simulation.
+     * @return (Simulator) The created simulator, or null if the choices are not valid.
+     */
+    public Simulator create(String habitat, String scenario, HashMap<String, Integer> animals, SimulationObserver observer)
+    {
+        return initializer.initializeSimulation(habitat, animals, scenario, observer);
+    }
+
+    /**
+     * Restore a simulation saved by Checkpoint.save, run by the engine chosen for this runner.
+     *
+     * @param checkpoint (Path) The checkpoint file.
+     * @param observer (SimulationObserver) The observer receiving the state of the simulation.
+     * @return (Simulator) The restored simulator, ready to run its next step.
+     * @throws IOException If the checkpoint could not be read.
+     */
+    public Simulator restore(Path checkpoint, SimulationObserver observer) throws IOException
+    {
+        return initializer.restoreSimulation(checkpoint, observer);
+    }
+
+    /**
+     * Run a simulation for the given number of steps, or until it is no longer viable, saving it
+     * to a checkpoint every given number of steps and when the run ends.
+     *
+     * @param simulator (Simulator) The simulation to run.
+     * @param steps (int) The maximum number of steps to run.
+     * @param checkpoint (Path) The checkpoint file, replaced at each save.
+     * @param interval (int) The number of steps between two saves.
+     * @return (int) The number of steps actually run.
+     * @throws IOException If the checkpoint could not be written.
+     */
+    public int run(Simulator simulator, int steps, Path checkpoint, int interval) throws IOException
+    {
+        int stepsRun = 0;
+        while (stepsRun < steps) {
+            int chunk = Math.min(interval, steps - stepsRun);
+            int chunkRun = run(simulator, chunk);
+            stepsRun += chunkRun;
+            Checkpoint.save(simulator, checkpoint);
+            if (chunkRun < chunk) {
+                break;
+            }
+        }
+        return stepsRun;
+    }
+
+    /**
+     * Run a simulation for the given number of steps, or until it is no longer viable.
+     *
+     * @param simulator (Simulator) The simulation to run.
+     * @param steps (int) The maximum number of steps to run.
+     * @return (int) The number of steps actually run.
+     */
+    public int run(Simulator simulator, int steps)
+    {
+        int startStep = simulator.getCurrentStep();
+        simulator.simulate(steps);
+        return simulator.getCurrentStep() - startStep;
+    }
+
+    /**
+     * Build or restore a simulation from the command line arguments, run it and print its statuses and speed.
+     *
+     * @param args (String[]) The habitat, scenario and number of steps, followed by animal=count pairs and options,
+     *                        or restore=file and the number of steps, followed by options.
+     */
+    public static void main(String[] args)
+    {
+        Path restoreFrom = (args.length > 0 && args[0].startsWith("restore=")) ? Paths.get(args[0].substring("restore=".length())) : null;
+        int firstOption = (restoreFrom != null) ? 2 : 3;
+        if (args.length < firstOption) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        HeadlessSimulation runner = new HeadlessSimulation();
+        String habitat = (restoreFrom != null) ? null : args[0];
+        String scenario = (restoreFrom != null) ? null : args[1];
+        int steps = Integer.parseInt(args[firstOption - 1]);
+        int reportInterval = DEFAULT_REPORT_INTERVAL;
+        boolean profile = false;
+        int depth = Initializer.DEFAULT_DEPTH;
+        int width = Initializer.DEFAULT_WIDTH;
+        Path checkpoint = null;
+        int checkpointInterval = steps;
+        List<SeriesWriter> writers = new ArrayList<>();
+        HashMap<String, Integer> animals = new HashMap<>();
+        Map<String, Path> rasters = new LinkedHashMap<>();
+
+        for (int i = firstOption; i < args.length; i++) {
+            int equals = args[i].indexOf('=');
+            if (equals < 0) {
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+            String key = args[i].substring(0, equals);
+            String value = args[i].substring(equals + 1);
+            if (key.equals("seed")) {
+                runner.setSeed(Long.parseLong(value));
+            }
+            else if (key.equals("engine")) {
+                runner.setEngineType(EngineType.valueOf(value.toUpperCase()));
+            }
+            else if (key.equals("depth")) {
+                depth = Integer.parseInt(value);
+            }
+            else if (key.equals("width")) {
+                width = Integer.parseInt(value);
+            }
+            else if (key.equals("report")) {
+                reportInterval = Integer.parseInt(value);
+            }
+            else if (key.equals("profile")) {
+                profile = Boolean.parseBoolean(value);
+            }
+            else if (key.equals("checkpoint")) {
+                checkpoint = Paths.get(value);
+            }
+            else if (key.equals("every")) {
+                checkpointInterval = Integer.parseInt(value);
+            }
+            else if (key.equals("series") || key.equals("csv")) {
+                try {
+                    writers.add(key.equals("series") ? new BinarySeriesWriter(Paths.get(value)) : new CsvSeriesWriter(Paths.get(value)));
+                }
+                catch (IOException e) {
+                    System.err.println("Can not write " + value + ": " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+            else if (restoreFrom == null && runner.initializer.getAnimalChoices().contains(key)) {
+                if (value.chars().allMatch(Character::isDigit) && !value.isEmpty()) {
+                    animals.put(key, Integer.parseInt(value));
+                    rasters.remove(key);
+                }
+                else {
+                    rasters.put(key, Paths.get(value));
+                    animals.remove(key);
+                }
+            }
+            else {
+                System.err.println("Unknown animal: " + key + ", available animals are " + runner.initializer.getAnimalChoices());
+                System.exit(1);
+            }
+        }
+        runner.setDensityRasters(rasters);
+        try {
+            runner.setFieldSize(depth, width);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        if (restoreFrom == null && !runner.initializer.getHabitatChoices().contains(habitat)) {
+            System.err.println("Unknown habitat: " + habitat + ", available habitats are " + runner.initializer.getHabitatChoices());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        if (restoreFrom == null && !runner.initializer.getScenarioChoices().contains(scenario)) {
+            System.err.println("Unknown scenario: " + scenario + ", available scenarios are " + runner.initializer.getScenarioChoices());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        List<SimulationObserver> observers = new ArrayList<>(writers);
+        observers.add(new ConsoleObserver(System.out, reportInterval));
+        ObserverGroup observer = new ObserverGroup(observers.toArray(new SimulationObserver[0]));
+        Simulator simulator = null;
+        if (restoreFrom != null) {
+            try {
+                simulator = runner.restore(restoreFrom, observer);
+            }
+            catch (IOException e) {
+                System.err.println("Can not restore " + restoreFrom + ": " + e.getMessage());
+            }
+        }
+        else {
+            simulator = runner.create(habitat, scenario, animals, observer);
+        }
+        if (simulator == null) {
+            System.exit(1);
+        }
+        StepProfiler profiler = null;
+        if (profile) {
+            profiler = simulator.startProfiling();
+            profiler.register(((habitat != null) ? habitat : "restored") + "-" + simulator.getSeed());
+        }
+        long start = System.nanoTime();
+        int startStep = simulator.getCurrentStep();
+        int stepsRun;
+        if (checkpoint != null) {
+            try {
+                stepsRun = runner.run(simulator, steps, checkpoint, Math.max(1, checkpointInterval));
+            }
+            catch (IOException e) {
+                System.err.println("Can not save " + checkpoint + ": " + e.getMessage());
+                stepsRun = simulator.getCurrentStep() - startStep;
+            }
+        }
+        else {
+            stepsRun = runner.run(simulator, steps);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d steps in %.3f s (%.1f steps/s), seed %d%n", stepsRun, seconds, stepsRun / seconds, simulator.getSeed());
+        if (profiler != null) {
+            System.out.print(profiler.getSummary());
+            profiler.unregister();
+        }
+        for (SeriesWriter writer : writers) {
+            try {
+                writer.close();
+            }
+            catch (IOException e) {
+                System.err.println("The series was not written completely: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,15 +1,24 @@
 import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /**
  * Initializing the simulation. It first launches the UI, then builds the appropriate
  * objects to run the simulation desired by the user.
  *
  * IMPORTANT: This is the class that should be called to run the simulation.
+ * Simulations can also be built without any window by creating an Initializer
+ * that does not launch the GUI (see HeadlessSimulation).
  *
  * @author Anton Sirgue (K21018741) and Ali Alkhars (K20055566)
  * @version 2022.03.01
@@ -17,9 +26,9 @@ import java.util.Random;
 public class Initializer
 {
     // The default width for the grid.
-    private static final int DEFAULT_WIDTH = 120;
+    public static final int DEFAULT_WIDTH = 120;
     // The default depth of the grid.
-    private static final int DEFAULT_DEPTH = 80;
+    public static final int DEFAULT_DEPTH = 80;
     // The default color for plant objects.
     private static final Color DEFAULT_PLANT_COLOR = Color.decode("0x006400");
     // Default plant name, for now there is just one type of plant so its name is default, this can be changed as the rest of the code is extendable.
@@ -30,12 +39,24 @@ public class Initializer
     private static final ArrayList<String> CLIMATE_CHANGE_SCENARIO_NAMES = new ArrayList<>(Arrays.asList("none", "low", "medium", "high"));
     // False of the simulation starts during the day, true if it starts during the night.
     private static final boolean DEFAULT_START_TIME = false;
+    // The engine used to run simulations unless another one is chosen.
+    private static final EngineType DEFAULT_ENGINE_TYPE = EngineType.OBJECT;
     // The list of colors available for animal objects.
     private ArrayList<Color> listOfColorsForAnimals;
     // The index of the next color from the list used for an animal.
     private int idxOfColorToUseNext;
-    // List of species to evolve in the field.
-    private List<Species> speciesToEvolveInSimulation;
+    // The engine holding the species to evolve in the field.
+    private SimulationEngine engine;
+    // The type of engine created for the next simulation.
+    private EngineType engineType;
+    // The seed of the next simulation, or null to pick a new one for each simulation.
+    private Long seed;
+    // The depth and width of the grid of the next simulation.
+    private int depth, width;
+    // The density maps the animals of the next simulation are placed from, by animal name.
+    private Map<String, Path> densityRasters;
+    // The identifier given to the next species definition created.
+    private int nextSpeciesId;
     // To read habitat related data.
     private final HabitatCSVReader habitatReader;
     // To read animal related data.
@@ -44,8 +65,10 @@ public class Initializer
     private final PlantCSVReader plantReader;
     // A Random object to handle random behaviours throughout the class.
     private static final Random rand = Randomizer.getRandom();
-    // A graphical view of the simulation.
-    private SimulatorView view;
+    // The observer of the simulation being built, its graphical view when the GUI is used.
+    private SimulationObserver view;
+    // The free cells of the field of the simulation being built, where individuals are placed.
+    private FreeCellSampler freeCells;
     // The plant concentration in the habitat created by the user.
     private double habitatPlantConcentration;
     // The GUIHandler handling the GUI.
@@ -55,11 +78,28 @@ public class Initializer
 
 
     /**
-     * Builds an Initializer object and initializes its field.
+     * Builds an Initializer object and initializes its field, then launches the GUI.
      */
     public Initializer()
     {
-        speciesToEvolveInSimulation = new ArrayList<>();
+        this(true);
+    }
+
+    /**
+     * Builds an Initializer object and initializes its field.
+     *
+     * @param launchGUI (boolean) Whether to open the menu. Without it, simulations are built through
+     *                  initializeSimulation with an observer, and errors are printed rather than shown.
+     */
+    public Initializer(boolean launchGUI)
+    {
+        if (!launchGUI) {
+            ErrorThrower.setPrintMessages(true);
+        }
+        engineType = DEFAULT_ENGINE_TYPE;
+        depth = DEFAULT_DEPTH;
+        width = DEFAULT_WIDTH;
+        densityRasters = new LinkedHashMap<>();
         habitatReader = new HabitatCSVReader();
         animalReader = new AnimalCSVReader();
         plantReader = new PlantCSVReader();
@@ -69,7 +109,9 @@ public class Initializer
         populateAnimalColors();
         idxOfColorToUseNext = 0;
 
-        openGUI();
+        if (launchGUI) {
+            openGUI();
+        }
     }
 
     /**
@@ -94,20 +136,283 @@ public class Initializer
      * @return (Simulator) The created simulator.
      */
     public Simulator initializeSimulation(String chosenHabitat, HashMap<String, Integer> animalsToCreate, String scenarioName)
+    {
+        return buildSimulation(chosenHabitat, animalsToCreate, scenarioName, () -> new SimulatorView(depth, width, handler));
+    }
+
+    /**
+     * Create a simulator as above, observed by the given observer instead of a graphical view.
+     * This allows simulations to run without a display.
+     *
+     * @param chosenHabitat (String) The name of the chosen habitat.
+     * @param animalsToCreate (HashMap<String, Integer>) Keys are the animals' names and values are the number of each animal we need to create.
+     * @param scenarioName (String) The name of the climate change scenario to implement in the simulation.
+     * @param observer (SimulationObserver) The observer receiving the state of the simulation.
+     * @return (Simulator) The created simulator, or null if it could not be built.
+     */
+    public Simulator initializeSimulation(String chosenHabitat, HashMap<String, Integer> animalsToCreate, String scenarioName, SimulationObserver observer)
+    {
+        return buildSimulation(chosenHabitat, animalsToCreate, scenarioName, () -> observer);
+    }
+
+    /**
+     * Restore a simulation saved by Checkpoint.save, run by the engine chosen for this initializer.
+     *
+     * @param checkpoint (Path) The checkpoint file.
+     * @param observer (SimulationObserver) The observer receiving the state of the simulation.
+     * @return (Simulator) The restored simulator, ready to run its next step.
+     * @throws IOException If the checkpoint could not be read.
+     */
+    public Simulator restoreSimulation(Path checkpoint, SimulationObserver observer) throws IOException
+    {
+        return Checkpoint.restore(checkpoint, engineType, observer, this::getColor);
+    }
+
+    /**
+     * Capture the current state of a simulation in memory, to fork it into branches with forkSimulation.
+     *
+     * @param simulator (Simulator) The simulation, between two steps.
+     * @return (ByteBuffer) The captured state, which can be forked any number of times.
+     * @throws IOException If the simulation is too large to be captured (see Checkpoint.MAX_SIZE).
+     */
+    public ByteBuffer captureSimulation(Simulator simulator) throws IOException
+    {
+        return Checkpoint.capture(simulator);
+    }
+
+    /**
+     * Create a simulation continuing independently from a captured state, run by the engine chosen for
+     * this initializer, with the given climate change scenario and seed.
+     *
+     * @param snapshot (ByteBuffer) The state returned by captureSimulation.
+     * @param scenarioName (String) The name of the climate change scenario followed from now on, or null to keep the captured one.
+     * @param seed (Long) The seed of the branch, or null to keep the captured one.
+     * @param observer (SimulationObserver) The observer receiving the state of the branch.
+     * @return (Simulator) The branch, ready to run its next step, or null if the state could not be read.
+     */
+    public Simulator forkSimulation(ByteBuffer snapshot, String scenarioName, Long seed, SimulationObserver observer)
+    {
+        ClimateScenarios scenario = (scenarioName != null) ? createChosenClimateChangeScenario(scenarioName) : null;
+        try {
+            return Checkpoint.restore(snapshot, engineType, observer, this::getColor, scenario, seed);
+        }
+        catch (IOException e) {
+            errorThrower.throwMessage("The simulation could not be forked: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fork a simulation into one branch per climate change scenario, all continuing from its current
+     * step with its seed. The simulation is captured once and is left untouched.
+     *
+     * @param source (Simulator) The simulation to fork, between two steps.
+     * @param scenarioNames (List<String>) The name of the scenario of each branch.
+     * @param observers (IntFunction<SimulationObserver>) Creates the observer of the branch of the given index.
+     * @return (List<Simulator>) The branches, in the order of the scenarios, or null if the simulation could not be captured
+     *                           or one of the branches could not be created.
+     */
+    public List<Simulator> forkSimulation(Simulator source, List<String> scenarioNames, IntFunction<SimulationObserver> observers)
+    {
+        ByteBuffer snapshot;
+        try {
+            snapshot = captureSimulation(source);
+        }
+        catch (IOException e) {
+            errorThrower.throwMessage("The simulation could not be forked: " + e.getMessage());
+            return null;
+        }
+        List<Simulator> branches = new ArrayList<>();
+        for (int i = 0; i < scenarioNames.size(); i++) {
+            Simulator branch = forkSimulation(snapshot, scenarioNames.get(i), null, observers.apply(i));
+            if (branch == null) {
+                // The error was already reported, no partial fork is returned.
+                return null;
+            }
+            branches.add(branch);
+        }
+        return branches;
+    }
+
+    /**
+     * @param definition (SpeciesDefinition) A species of a simulation built by this initializer.
+     * @return (Color) The color the species is shown with: animals take the colors in the order of their ids, plants share one color.
+     */
+    public Color getColor(SpeciesDefinition definition)
+    {
+        if (definition.getKind() == Field.PLANT) {
+            return DEFAULT_PLANT_COLOR;
+        }
+        return listOfColorsForAnimals.get(definition.getId());
+    }
+
+    /**
+     * @return (ArrayList<String>) The names of the animals that can be added to a simulation.
+     */
+    public ArrayList<String> getAnimalChoices()
+    {
+        return animalReader.getChoicesList();
+    }
+
+    /**
+     * @return (ArrayList<String>) The names of the habitats a simulation can take place in.
+     */
+    public ArrayList<String> getHabitatChoices()
+    {
+        return habitatReader.getChoicesList();
+    }
+
+    /**
+     * @return (ArrayList<String>) The names of the climate change scenarios.
+     */
+    public ArrayList<String> getScenarioChoices()
+    {
+        return CLIMATE_CHANGE_SCENARIO_NAMES;
+    }
+
+    /**
+     * Build a simulator and its observer. The observer is only created once the choices have been checked,
+     * the density maps read and the animals placed from them, so that no window is opened for a simulation
+     * that can not be built.
+     *
+     * @param chosenHabitat (String) The name of the chosen habitat.
+     * @param animalsToCreate (HashMap<String, Integer>) Keys are the animals' names and values are the number of each animal we need to create.
+     * @param scenarioName (String) The name of the climate change scenario to implement in the simulation.
+     * @param observerMaker (Supplier<SimulationObserver>) Creates the observer of the simulation.
+     * @return (Simulator) The created simulator, or null if it could not be built.
+     */
+    private Simulator buildSimulation(String chosenHabitat, HashMap<String, Integer> animalsToCreate, String scenarioName, Supplier<SimulationObserver> observerMaker)
     {
         SimulationStep simulatorStepCounter = new SimulationStep();
-        Field field = new Field(DEFAULT_DEPTH, DEFAULT_WIDTH);
+        Field field = new Field(depth, width);
         ClimateScenarios chosenClimateChangeScenario = createChosenClimateChangeScenario(scenarioName);
         Habitat simulationHabitat = createHabitat(chosenHabitat, simulatorStepCounter, chosenClimateChangeScenario);
+        if (simulationHabitat == null) {
+            return null;
+        }
         if (getNumberOfPlants() + getNumberOfAnimals(animalsToCreate) > calculateFieldArea()) {
             errorThrower.throwMessage("Too many animals were added for this habitat, please reduce the number of animals and try again");
             return null;
         }
-        view = new SimulatorView(DEFAULT_DEPTH, DEFAULT_WIDTH, handler);
+        for (String animalName : densityRasters.keySet()) {
+            if (!getAnimalChoices().contains(animalName)) {
+                errorThrower.throwMessage("A density map was given for " + animalName + ", which is not an available animal");
+                return null;
+            }
+        }
+        long simulationSeed = (seed != null) ? seed : Randomizer.newSeed();
+        engine = engineType.createEngine(field, simulationSeed);
+        nextSpeciesId = 0;
+        idxOfColorToUseNext = 0;
+        Randomizer.beginStream(simulationSeed, 0, Randomizer.INITIALIZATION_STREAM);
+        SpeciesDefinition[] rasterSpecies;
+        try {
+            rasterSpecies = populateFromRasters(field);
+        }
+        catch (IOException e) {
+            errorThrower.throwMessage("Could not read a density map: " + e.getMessage());
+            return null;
+        }
+        freeCells = new FreeCellSampler(field);
+        if (getNumberOfPlants() + getNumberOfAnimals(animalsToCreate) > freeCells.getFreeCount()) {
+            freeCells = null;
+            errorThrower.throwMessage("The density maps leave too few free cells for the other animals and the plants, please reduce them and try again");
+            return null;
+        }
+        view = observerMaker.get();
+        for (SpeciesDefinition definition : rasterSpecies) {
+            view.setColor(definition.getName(), listOfColorsForAnimals.get(idxOfColorToUseNext));
+            idxOfColorToUseNext ++;
+        }
         populateWithAnimals(animalsToCreate, field);
         populateWithPlants(field);
+        freeCells = null;
         Time timeObject = new Time(simulatorStepCounter, DEFAULT_START_TIME);
-        return new Simulator(simulationHabitat, timeObject ,speciesToEvolveInSimulation, field, simulatorStepCounter, view);
+        return new Simulator(simulationHabitat, timeObject, engine, field, simulatorStepCounter, view, simulationSeed);
+    }
+
+    /**
+     * Choose the engine used by the simulations created from now on.
+     *
+     * @param engineType (EngineType) The type of engine to use.
+     */
+    public void setEngineType(EngineType engineType)
+    {
+        this.engineType = engineType;
+    }
+
+    /**
+     * Choose the size of the grid of the simulations created from now on.
+     *
+     * @param depth (int) The number of rows of the grid.
+     * @param width (int) The number of columns of the grid.
+     * @throws IllegalArgumentException If the grid would be empty or larger than Field.MAX_CELL_COUNT cells.
+     */
+    public void setFieldSize(int depth, int width)
+    {
+        Field.checkSize(depth, width);
+        this.depth = depth;
+        this.width = width;
+    }
+
+    /**
+     * @return (int) The number of rows of the grid of the simulations created from now on.
+     */
+    public int getFieldDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return (int) The number of columns of the grid of the simulations created from now on.
+     */
+    public int getFieldWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Place the animals of the given species from density maps rather than in random cells, in
+     * the simulations created from now on. The counts given for these species are then ignored.
+     *
+     * @param rasters (Map<String, Path>) The file of the density map of each animal, by animal name (see DensityRaster).
+     *                Empty to place every animal in random cells.
+     */
+    public void setDensityRasters(Map<String, Path> rasters)
+    {
+        densityRasters = new LinkedHashMap<>(rasters);
+    }
+
+    /**
+     * Replace some parameters of the .csv files in the simulations created from now on, without
+     * changing the files, to try other values of the parameters.
+     *
+     * @param parameters (Map<String, String>) The new values, by "element.column", for instance "tiger.breedingProbability"
+     *                   or "savanna.plantConcentration". Empty to use the values of the files.
+     * @throws IllegalArgumentException If a parameter does not name an element of the files and one of its columns.
+     */
+    public void setParameterOverrides(Map<String, String> parameters)
+    {
+        for (String key : parameters.keySet()) {
+            int dot = key.lastIndexOf('.');
+            String element = (dot >= 0) ? key.substring(0, dot) : key;
+            if (!animalReader.hasElement(element) && !habitatReader.hasElement(element) && !plantReader.hasElement(element)) {
+                throw new IllegalArgumentException("Unknown parameter: " + key);
+            }
+        }
+        animalReader.setOverrides(parameters);
+        habitatReader.setOverrides(parameters);
+        plantReader.setOverrides(parameters);
+    }
+
+    /**
+     * Run the simulations created from now on with the given seed, so that they can be reproduced.
+     *
+     * @param seed (Long) The seed to use, or null to pick a new seed for each simulation.
+     */
+    public void setSeed(Long seed)
+    {
+        this.seed = seed;
     }
 
     /**
@@ -116,11 +421,15 @@ public class Initializer
      * @param habitatName (String) The name of the chosen habitat.
      * @param simulatorStepCounter (SimulationStep) The created SimulationStep object for this simulation to be handed to the Habitat object.
      * @param climateChangeScenario (ClimateScenarios) The created ClimateScenarios enum to be handed to the Habitat object.
-     * @return (Habitat) the created Habitat object.
+     * @return (Habitat) the created Habitat object, or null if the habitat is not given or not in the .csv file.
      */
     private Habitat createHabitat (String habitatName, SimulationStep simulatorStepCounter, ClimateScenarios climateChangeScenario)
     {
         if (habitatName != null) {
+            if (!getHabitatChoices().contains(habitatName)) {
+                errorThrower.throwMessage("No data could be read for the habitat " + habitatName + ", available habitats are " + getHabitatChoices());
+                return null;
+            }
             habitatReader.extractDataFor(habitatName);
             Habitat chosenHabitat = new Habitat(simulatorStepCounter, climateChangeScenario ,habitatReader.getSpringTemperatures(), habitatReader.getSummerTemperatures(), habitatReader.getAutumnTemperatures(), habitatReader.getWinterTemperatures());
             habitatPlantConcentration = habitatReader.getPlantConcentration();
@@ -142,44 +451,20 @@ public class Initializer
      */
     private void populateWithAnimals(HashMap<String, Integer> animalsToCreate, Field field)
     {
-        idxOfColorToUseNext = 0;
         Location freeLocationToPlaceAnimal;
 
         for(String animalName : animalsToCreate.keySet()) {
             animalReader.extractDataFor(animalName);
-            if (animalsToCreate.get(animalName) != 0)
+            if (animalsToCreate.get(animalName) != 0 && !densityRasters.containsKey(animalName))
             {
-                // Retrieve appropriate data.
-                String name = animalReader.getName();
-                int maximumTemperature = animalReader.getMaximumTemperature();
-                int minimumTemperature = animalReader.getMinimumTemperature();
-                int maxAge = animalReader.getMaximumAge();
-                int breedingAge = animalReader.getBreedingAge();
-                double breedingProbability = animalReader.getBreedingProbability();
-                int maxLitterSize = animalReader.getMaxLitterSize();
-                int nutritionalValue = animalReader.getNutritionalValue();
-                boolean hibernates = animalReader.canHibernate();
-                boolean isNocturnal = animalReader.isNocturnal();
-
-                if (animalReader.isPredator()) {
-                    // Predator object should be created, retrieving appropriate data.
-                    int strength = animalReader.getStrength();
-
-                    // Creating the right number of Predator objects.
-                    for (int i = 0; i < animalsToCreate.get(animalName); i++) {
-                        freeLocationToPlaceAnimal = findAvailableLocation(field);
-                        Predator newPredator = new Predator(strength, field, freeLocationToPlaceAnimal, name, maximumTemperature, minimumTemperature, nutritionalValue, breedingProbability, maxAge, breedingAge, maxLitterSize, RANDOM_ANIMAL_AGE, hibernates, isNocturnal);
-                        speciesToEvolveInSimulation.add(newPredator);
-                    }
-                }
-                else {
-                    // Animal object should be created
-                    // Creating the right number of Animal objects.
-                    for (int i = 0; i < animalsToCreate.get(animalName); i++) {
-                        freeLocationToPlaceAnimal = findAvailableLocation(field);
-                        Animal newAnimal = new Animal(field, freeLocationToPlaceAnimal, name, maximumTemperature, minimumTemperature, nutritionalValue, breedingProbability, maxAge, breedingAge, maxLitterSize, RANDOM_ANIMAL_AGE, hibernates, isNocturnal);
-                        speciesToEvolveInSimulation.add(newAnimal);
-                    }
+                // Retrieve appropriate data, shared by all the animals of this species.
+                SpeciesDefinition definition = animalReader.createDefinition(nextSpeciesId++);
+                String name = definition.getName();
+
+                // Creating the right number of animals.
+                for (int i = 0; i < animalsToCreate.get(animalName); i++) {
+                    freeLocationToPlaceAnimal = findAvailableLocation(field);
+                    engine.spawn(definition, freeLocationToPlaceAnimal, RANDOM_ANIMAL_AGE);
                 }
 
                 // Setting the color for this species.
@@ -214,23 +499,77 @@ public class Initializer
         return chosenScenario;
     }
 
+    /**
+     * Populate the simulation with the animals that have a density map, in a single pass over the
+     * cells of the field, row by row, reading one row of every map at a time. Each cell holds an
+     * individual of a species with the probability given by its map. Where several maps overlap,
+     * their probabilities add up, and a single draw picks at most one of their species, so a
+     * species is not favoured for coming first unless the probabilities add up to more than 1.
+     *
+     * @param field (Field) The field in which the animals will evolve, still empty.
+     * @return (SpeciesDefinition[]) The species placed, in the order of their maps, to be given their colors.
+     * @throws IOException If a map could not be read.
+     */
+    private SpeciesDefinition[] populateFromRasters(Field field) throws IOException
+    {
+        int speciesCount = densityRasters.size();
+        SpeciesDefinition[] definitions = new SpeciesDefinition[speciesCount];
+        DensityRaster[] rasters = new DensityRaster[speciesCount];
+        double[][] densities = new double[speciesCount][width];
+        try {
+            int k = 0;
+            for (Map.Entry<String, Path> entry : densityRasters.entrySet()) {
+                rasters[k] = DensityRaster.open(entry.getValue(), depth, width);
+                animalReader.extractDataFor(entry.getKey());
+                definitions[k] = animalReader.createDefinition(nextSpeciesId++);
+                k++;
+            }
+
+            for (int row = 0; row < depth; row++) {
+                for (k = 0; k < speciesCount; k++) {
+                    rasters[k].readRow(densities[k]);
+                }
+                int cell = row * width;
+                for (int col = 0; col < width; col++, cell++) {
+                    // The draw is only made for the cells some species may start in.
+                    double draw = -1;
+                    double probability = 0;
+                    for (k = 0; k < speciesCount; k++) {
+                        if (densities[k][col] > 0) {
+                            if (draw < 0) {
+                                draw = rand.nextDouble();
+                            }
+                            probability += densities[k][col];
+                            if (draw < probability) {
+                                engine.spawn(definitions[k], field.getLocation(cell), RANDOM_ANIMAL_AGE);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            return definitions;
+        }
+        finally {
+            for (DensityRaster raster : rasters) {
+                if (raster != null) {
+                    raster.close();
+                }
+            }
+        }
+    }
+
     /**
      * Find an available location for an object to be created in the simulation field.
-     * The simulation is chosen at random and is changed if the randomly selected cell
-     * already contains an object.
+     * The location is drawn at random among the cells that are still free, so it takes
+     * the same time however full the field already is.
      *
      * @param field (Field) The simulation's field.
      * @return (Location) the available location found.
      */
     private Location findAvailableLocation(Field field)
     {
-        int randomWidth = rand.nextInt(DEFAULT_WIDTH);
-        int randomDepth = rand.nextInt(DEFAULT_DEPTH);
-        while (field.getObjectAt(randomDepth,randomWidth) != null) {
-            randomWidth = rand.nextInt(DEFAULT_WIDTH);
-            randomDepth = rand.nextInt(DEFAULT_DEPTH);
-        }
-        return new Location(randomDepth, randomWidth);
+        return field.getLocation(freeCells.takeRandomCell(rand));
     }
 
     /**
@@ -240,7 +579,7 @@ public class Initializer
      */
     private int calculateFieldArea()
     {
-        return DEFAULT_WIDTH * DEFAULT_DEPTH;
+        return width * depth;
     }
 
     /**
@@ -252,16 +591,11 @@ public class Initializer
     {
         Location freeLocationToPlacePlant;
         plantReader.extractDataFor(DEFAULT_PLANT_NAME);
-        String name = plantReader.getName();
-        int maximumTemperature = plantReader.getMaximumTemperature();
-        int minimumTemperature = plantReader.getMinimumTemperature();
-        int nutritionalValue = plantReader.getNutritionalValue();
-        double reproductionProbability = plantReader.getReproductionProbability();
-        int maxHealth = plantReader.getMaxHealth();
+        SpeciesDefinition definition = plantReader.createDefinition(nextSpeciesId++);
+        String name = definition.getName();
         for (int i = 0; i< getNumberOfPlants(); i++) {
             freeLocationToPlacePlant = findAvailableLocation(field);
-            Plant createdPlant = new Plant(field, freeLocationToPlacePlant, name, maximumTemperature, minimumTemperature, nutritionalValue, reproductionProbability, maxHealth);
-            speciesToEvolveInSimulation.add(createdPlant);
+            engine.spawn(definition, freeLocationToPlacePlant, false);
         }
         view.setColor(name, DEFAULT_PLANT_COLOR);
     }
@@ -278,7 +612,7 @@ public class Initializer
     }
 
     /**
-     * Calculate the total number of animals to be created.
+     * Calculate the total number of animals to be created in random cells, those with a density map aside.
      *
      * @return (int) the number of animals.
      */
@@ -286,7 +620,9 @@ public class Initializer
     {
         int totalNumber = 0;
         for (String animalName : animalsToCreate.keySet()) {
-            totalNumber += animalsToCreate.get(animalName);
+            if (!densityRasters.containsKey(animalName)) {
+                totalNumber += animalsToCreate.get(animalName);
+            }
         }
         return totalNumber;
     }
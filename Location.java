@@ -1,5 +1,7 @@
 /**
- * Represent a location in a rectangular grid.
+ * Represent a location in a rectangular grid. Locations are immutable, and a Field of moderate size hands
+ * out a single shared Location for each of its cells (see Field.getLocation). Very large fields create
+ * Locations on demand, so locations must be compared with equals, or by their key.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
@@ -7,8 +9,8 @@
 public class Location
 {
     // Row and column positions.
-    private int row;
-    private int col;
+    private final int row;
+    private final int col;
 
     /**
      * Represent a row and column.
@@ -27,7 +29,11 @@ public class Location
      */
     public boolean equals(Object obj)
     {
-        if(obj instanceof Location) {
+        if(obj == this) {
+            // Locations handed out by a field are shared, so this is the common case.
+            return true;
+        }
+        else if(obj instanceof Location) {
             Location other = (Location) obj;
             return row == other.getRow() && col == other.getCol();
         }
@@ -47,14 +53,25 @@ public class Location
     }
     
     /**
-     * Use the top 16 bits for the row value and the bottom for the column. Except for very big grids, this should give a
-     * unique hash code for each (row, col) pair.
+     * Mix the bits of the key, so that neighbouring locations spread over the buckets of a hash table
+     * whatever the size of the grid.
      *
      * @return A hashcode for the location.
      */
     public int hashCode()
     {
-        return (row << 16) + col;
+        return (int) ((getKey() * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    /**
+     * Use the top 32 bits for the row value and the bottom 32 for the column, so that every location of any
+     * grid has its own key.
+     *
+     * @return A key unique to the (row, col) pair.
+     */
+    public long getKey()
+    {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
     }
     
     /**
@@ -25,6 +25,8 @@ public class MenuView
     private ArrayList<JTextField> animalNumberReceivers;
     // The HashMap storing animals chosen by the user.
     private HashMap<String, Integer> selectedAnimals;
+    // The JTextFields receiving the number of rows and columns of the grid.
+    private JTextField depthReceiver, widthReceiver;
     // Tool to alert user about any potential error.
     private ErrorThrower errorThrower;
 
@@ -70,6 +72,8 @@ public class MenuView
         // CLIMATE CHANGE SCENARIO CHANGE SECTION
         JComboBox scenarioListDisplay = createListDisplayFromList(climateChangeScenarioList);
         Box scenarioChoiceComponent = createScenarioChoiceComponent(scenarioListDisplay);
+        // GRID SIZE SECTION
+        Box fieldSizeComponent = createFieldSizeComponent();
         // ANIMAL CHOICE SECTION
         JPanel animalChoiceComponent = createAnimalChoiceComponent();
 
@@ -85,6 +89,7 @@ public class MenuView
         choiceComponents.setBorder(BorderFactory.createEmptyBorder(30,0,10,0));
         choiceComponents.add(habitatChoiceComponent);
         choiceComponents.add(scenarioChoiceComponent);
+        choiceComponents.add(fieldSizeComponent);
         choiceComponents.add(animalChoiceComponent);
 
         mainContainer.add(welcomeLabel, BorderLayout.NORTH);
@@ -158,6 +163,25 @@ public class MenuView
         return scenarioChoiceComponent;
     }
 
+    /**
+     * Create the part of the GUI that allows users to choose the size of the grid, filled with the size of the previous simulation.
+     *
+     * @return (Box) The part of the GUI that was created.
+     */
+    private Box createFieldSizeComponent()
+    {
+        Box fieldSizeComponent = Box.createHorizontalBox();
+        JLabel fieldSizePrompt = new JLabel("Choose the size of the grid (rows x columns):");
+        depthReceiver = new JTextField(String.valueOf(handler.getFieldDepth()));
+        widthReceiver = new JTextField(String.valueOf(handler.getFieldWidth()));
+        fieldSizeComponent.add(fieldSizePrompt);
+        fieldSizeComponent.add(depthReceiver);
+        fieldSizeComponent.add(new JLabel(" x "));
+        fieldSizeComponent.add(widthReceiver);
+
+        return fieldSizeComponent;
+    }
+
     /**
      * Create the component to guide users through their choice of animals and allow them to make such choice.
      * @return (JPanel) The created UI component.
@@ -237,9 +261,10 @@ public class MenuView
             ArrayList<Integer> numbersInputted = getNumericValuesOfUserInputs(animalNumberReceivers);
             if (numbersInputted != null) {
                 boolean generationSuccessful = generateAnimalDictionary(numbersInputted);
-                if (generationSuccessful) {
+                int[] fieldSize = getFieldSizeInput();
+                if (generationSuccessful && fieldSize != null) {
                     String chosenSimulation = getScenarioInput(climateChangeScenarioChoiceDisplay);
-                    launchSimulation(chosenHabitat, chosenSimulation);
+                    launchSimulation(chosenHabitat, chosenSimulation, fieldSize[0], fieldSize[1]);
                 }
             }
         }
@@ -298,6 +323,28 @@ public class MenuView
         return true;
     }
 
+    /**
+     * Reads the size of the grid inputted by the user.
+     *
+     * @return (int[]) The number of rows and columns of the grid, or null if they are not valid.
+     */
+    private int[] getFieldSizeInput()
+    {
+        try {
+            int depth = Integer.parseInt(depthReceiver.getText().trim());
+            int width = Integer.parseInt(widthReceiver.getText().trim());
+            Field.checkSize(depth, width);
+            return new int[] {depth, width};
+        }
+        catch (NumberFormatException e) {
+            throwErrorMessage("The size of the grid must be two numbers, please try again.");
+        }
+        catch (IllegalArgumentException e) {
+            throwErrorMessage(e.getMessage() + ", please try again.");
+        }
+        return null;
+    }
+
     /**
      * Reads the name of the chosen Habitat.
      *
@@ -335,10 +382,12 @@ public class MenuView
      *
      * @param chosenHabitat (String) The name of the habitat chosen by the user.
      * @param chosenScenario (String) The name of the climate change scenario chosen by the user.
+     * @param depth (int) The number of rows of the grid chosen by the user.
+     * @param width (int) The number of columns of the grid chosen by the user.
      */
 
-    private void launchSimulation(String chosenHabitat, String chosenScenario)
+    private void launchSimulation(String chosenHabitat, String chosenScenario, int depth, int width)
     {
-        handler.switchToSimulatorView(chosenHabitat,selectedAnimals,chosenScenario);
+        handler.switchToSimulatorView(chosenHabitat,selectedAnimals,chosenScenario, depth, width);
     }
 }
\ No newline at end of file
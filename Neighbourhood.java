@@ -0,0 +1,97 @@
+/**
+ * A snapshot of the cells surrounding an individual, sorted by what they contain. An animal
+ * scans its neighbourhood once at the start of its move and then uses the snapshot for
+ * reproducing, feeding, horde checks and moving, instead of asking the field for its
+ * adjacent locations again for each of these.
+ *
+ * The cells of each kind are kept in the random order in which the field produced them.
+ * A Neighbourhood is meant to be reused, it holds no state between two scans.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class Neighbourhood
+{
+    // The maximum number of cells adjacent to a cell.
+    private static final int MAX_NEIGHBOURS = 8;
+    // The number of kinds a cell can hold, as defined in Field.
+    private static final int KIND_COUNT = 4;
+
+    // Buffer receiving the adjacent cells from the field.
+    private final int[] adjacent;
+    // The adjacent cells, grouped by the kind of their occupant (Field.EMPTY for free cells).
+    private final int[][] cellsByKind;
+    // The number of cells found for each kind.
+    private final int[] counts;
+    // The number of free cells already handed out by takeFreeCell.
+    private int freeCellsTaken;
+
+    /**
+     * Create an empty neighbourhood.
+     */
+    public Neighbourhood()
+    {
+        adjacent = new int[MAX_NEIGHBOURS];
+        cellsByKind = new int[KIND_COUNT][MAX_NEIGHBOURS];
+        counts = new int[KIND_COUNT];
+    }
+
+    /**
+     * Look at the cells around the given cell and sort them by the kind of their occupant.
+     * This replaces whatever the neighbourhood held before.
+     *
+     * @param field (Field) The field to look at.
+     * @param cell (int) The index of the cell at the centre of the neighbourhood.
+     */
+    public void scan(Field field, int cell)
+    {
+        for(int kind = 0; kind < KIND_COUNT; kind++) {
+            counts[kind] = 0;
+        }
+        freeCellsTaken = 0;
+
+        int adjacentCount = field.adjacentCells(cell, adjacent);
+        for(int i = 0; i < adjacentCount; i++) {
+            int next = adjacent[i];
+            byte kind = field.getKindAt(next);
+            cellsByKind[kind][counts[kind]++] = next;
+        }
+    }
+
+    /**
+     * @param kind (byte) A kind code from Field.
+     * @return (int) The number of adjacent cells holding this kind, Field.EMPTY counts the free cells.
+     */
+    public int getCount(byte kind)
+    {
+        return counts[kind];
+    }
+
+    /**
+     * @param kind (byte) A kind code from Field.
+     * @param index (int) The position of the cell among the cells of this kind.
+     * @return (int) The index in the field of the cell.
+     */
+    public int getCell(byte kind, int index)
+    {
+        return cellsByKind[kind][index];
+    }
+
+    /**
+     * Hand out the next free adjacent cell that has not been handed out yet. Cells that were
+     * filled since the scan are skipped.
+     *
+     * @param field (Field) The field the neighbourhood was scanned from.
+     * @return (int) The index of a free cell, or -1 if none is left.
+     */
+    public int takeFreeCell(Field field)
+    {
+        while(freeCellsTaken < counts[Field.EMPTY]) {
+            int cell = cellsByKind[Field.EMPTY][freeCellsTaken++];
+            if(field.getObjectAt(cell) == null) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
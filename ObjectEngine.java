@@ -0,0 +1,234 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The default engine, in which every individual is a Species object held in a list.
+ * This is the engine the simulation has always used: all species act in turn on a single
+ * thread, and newborns join the end of the list as they are born.
+ *
+ * @author David J. Barnes, Michael Kölling, Ali Alkhars (k20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class ObjectEngine implements SimulationEngine
+{
+    // List of species in the field.
+    private List<Species> species;
+    // The species of all the individuals ever given to the engine.
+    private final List<SpeciesDefinition> definitions;
+    // The field in which the species evolve.
+    private Field field;
+    // The seed of the simulation, keying the random streams of the individuals.
+    private final long seed;
+    // The profiler timing the steps, or null when they are not timed.
+    private StepProfiler profiler;
+
+    /**
+     * Create an engine with no individuals.
+     *
+     * @param field (Field) The field in which the species evolve.
+     * @param seed (long) The seed of the simulation.
+     */
+    public ObjectEngine(Field field, long seed)
+    {
+        this.field = field;
+        this.seed = seed;
+        species = new ArrayList<>();
+        definitions = new ArrayList<>();
+    }
+
+    /**
+     * Create the Animal, Predator or Plant object matching the definition and add it to the list of species.
+     *
+     * @param definition (SpeciesDefinition) The species of the individual.
+     * @param location (Location) The free location where the individual appears.
+     * @param randomAge (boolean) Whether an animal should be created with a random age.
+     */
+    public void spawn(SpeciesDefinition definition, Location location, boolean randomAge)
+    {
+        addDefinition(definition);
+        species.add(createSpecies(definition, field, location, randomAge));
+    }
+
+    /**
+     * Create the Animal, Predator or Plant object matching the definition. Engines holding Species objects share this method.
+     *
+     * @param definition (SpeciesDefinition) The species of the individual.
+     * @param field (Field) The field in which the individual evolves.
+     * @param location (Location) The free location where the individual appears.
+     * @param randomAge (boolean) Whether an animal should be created with a random age.
+     * @return (Species) The created individual.
+     */
+    static Species createSpecies(SpeciesDefinition definition, Field field, Location location, boolean randomAge)
+    {
+        if (definition.getKind() == Field.PREDATOR) {
+            return new Predator(definition, field, location, randomAge);
+        }
+        else if (definition.getKind() == Field.PREY) {
+            return new Animal(definition, field, location, randomAge);
+        }
+        else {
+            return new Plant(definition, field, location, definition.getMaxHealth());
+        }
+    }
+
+    /**
+     * Recreate the Animal, Predator or Plant object of a record of a checkpoint. Engines holding Species objects share this method.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the record.
+     * @param definitions (SpeciesDefinition[]) The species of the individuals, indexed by species id.
+     * @param field (Field) The field in which the individual evolves.
+     * @return (Species) The recreated individual.
+     */
+    static Species readSpecies(ByteBuffer buffer, SpeciesDefinition[] definitions, Field field)
+    {
+        SpeciesDefinition definition = definitions[buffer.getShort()];
+        Location location = field.getLocation(buffer.getInt());
+        long id = buffer.getLong();
+        int age = buffer.getInt();
+        int foodLevel = buffer.getInt();
+        int hiberSteps = buffer.getInt();
+        byte flags = buffer.get();
+        if (definition.getKind() == Field.PREDATOR) {
+            return new Predator(definition, field, location, id, age, foodLevel, hiberSteps, flags);
+        }
+        else if (definition.getKind() == Field.PREY) {
+            return new Animal(definition, field, location, id, age, foodLevel, hiberSteps, flags);
+        }
+        else {
+            return new Plant(definition, field, location, id, foodLevel, hiberSteps, flags);
+        }
+    }
+
+    /**
+     * Let every species act, then remove the dead ones. Newborns are appended to the list while the
+     * species act and only act from the next step on. The dead are removed in a single pass that
+     * moves the living down the list, keeping their order, so a step stays linear in the population
+     * however many individuals die in it.
+     *
+     * @param step (int) The number of the step being run.
+     * @param isSpring (boolean) If the current season is spring.
+     * @param isNight (boolean) If it is currently night.
+     * @param temperature (int) The current temperature.
+     * @param yearPassed (boolean) If a year is passing on this step.
+     */
+    public void step(int step, boolean isSpring, boolean isNight, int temperature, boolean yearPassed)
+    {
+        // Let all species act, newborns go straight to the end of the list.
+        int count = species.size();
+        for(int i = 0; i < count; i++)
+        {
+            Species specie = species.get(i);
+            // Update the status of isSpring in the plants (done here to reduce coupling)
+            if (specie instanceof Plant)
+            {
+                Plant tempPlant = (Plant) specie;
+                if (tempPlant.getIsSpring() != isSpring) {
+                    tempPlant.toggleIsSpring();
+                }
+            }
+
+            Randomizer.beginStream(seed, step, specie.getIndividualId());
+            if (profiler == null) {
+                specie.act(species, isNight, temperature, yearPassed);
+            }
+            else {
+                long start = System.nanoTime();
+                specie.act(species, isNight, temperature, yearPassed);
+                profiler.record(StepProfiler.actPhase(specie.getKind()), System.nanoTime() - start);
+            }
+        }
+
+        // Move the living species, old and newborn, down over the dead ones, then cut the end of the list.
+        long mergeStart = (profiler != null) ? System.nanoTime() : 0;
+        int size = species.size();
+        int kept = 0;
+        for(int i = 0; i < size; i++) {
+            Species specie = species.get(i);
+            if(specie.isAlive()) {
+                if(kept != i) {
+                    species.set(kept, specie);
+                }
+                kept++;
+            }
+        }
+        species.subList(kept, size).clear();
+        if (profiler != null) {
+            profiler.record(StepProfiler.MERGE, System.nanoTime() - mergeStart);
+        }
+    }
+
+    /**
+     * @return (int) The number of species objects in the list.
+     */
+    public int getPopulationSize()
+    {
+        return species.size();
+    }
+
+    /**
+     * Time the acts of the individuals, by kind, and the merge of the newborns in the given profiler.
+     *
+     * @param profiler (StepProfiler) The profiler, or null to stop timing.
+     */
+    public void setProfiler(StepProfiler profiler)
+    {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return (List<SpeciesDefinition>) The species of all the individuals ever given to the engine.
+     */
+    public List<SpeciesDefinition> getDefinitions()
+    {
+        return new ArrayList<>(definitions);
+    }
+
+    /**
+     * Write the record of every species object to a checkpoint, in the order of the list.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, with room for getPopulationSize() records.
+     */
+    public void writeAgents(ByteBuffer buffer)
+    {
+        for (Species specie : species) {
+            specie.writeState(buffer);
+        }
+    }
+
+    /**
+     * Recreate the species objects read from a checkpoint at the end of the list.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the first record.
+     * @param count (int) The number of records to read.
+     * @param definitions (SpeciesDefinition[]) The species of the individuals, indexed by species id.
+     */
+    public void readAgents(ByteBuffer buffer, int count, SpeciesDefinition[] definitions)
+    {
+        for (int i = 0; i < count; i++) {
+            Species specie = ObjectEngine.readSpecies(buffer, definitions, field);
+            addDefinition(specie.getDefinition());
+            species.add(specie);
+        }
+    }
+
+    /**
+     * Remember a species, if it is new to the engine.
+     *
+     * @param definition (SpeciesDefinition) The species of an individual given to the engine.
+     */
+    private void addDefinition(SpeciesDefinition definition)
+    {
+        if (!definitions.contains(definition)) {
+            definitions.add(definition);
+        }
+    }
+
+    /**
+     * Empty the list of species.
+     */
+    public void clear()
+    {
+        species.clear();
+    }
+}
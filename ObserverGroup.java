@@ -0,0 +1,63 @@
+import java.awt.Color;
+
+/**
+ * An observer passing everything it is told on to several observers, so that a simulation can
+ * for instance be printed and written to a file at the same time.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class ObserverGroup implements SimulationObserver
+{
+    // The observers, told in this order.
+    private final SimulationObserver[] observers;
+
+    /**
+     * Create a group of observers.
+     *
+     * @param observers (SimulationObserver[]) The observers, told in this order.
+     */
+    public ObserverGroup(SimulationObserver... observers)
+    {
+        this.observers = observers.clone();
+    }
+
+    /**
+     * Pass the color of a specie on to every observer.
+     *
+     * @param speciesName (String) The specie's name.
+     * @param color (Color) The color given to the specie.
+     */
+    public void setColor(String speciesName, Color color)
+    {
+        for (SimulationObserver observer : observers) {
+            observer.setColor(speciesName, color);
+        }
+    }
+
+    /**
+     * Pass the status of a step on to every observer.
+     *
+     * @param step (int) Which iteration step it is.
+     * @param time (String) The current time in the simulation
+     * @param season (String) The current season in the simulation
+     * @param temperature (int) The current temperature in the simulation
+     * @param field (Field) The field whose status is shown.
+     */
+    public void showStatus(int step, String time, String season, int temperature, Field field)
+    {
+        for (SimulationObserver observer : observers) {
+            observer.showStatus(step, time, season, temperature, field);
+        }
+    }
+
+    /**
+     * Tell every observer that the run ended.
+     */
+    public void runEnded()
+    {
+        for (SimulationObserver observer : observers) {
+            observer.runEnded();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Something that can occupy a cell of the field. The field and the statistics only need to
+ * know the name, species and kind of what sits in a cell, whether it is an individual object
+ * (a Species) or the shared definition used by the compact engine to mark its cells.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public interface Occupant
+{
+    /**
+     * @return (String) The name of the species occupying the cell.
+     */
+    String getName();
+
+    /**
+     * @return (int) The identifier of the species occupying the cell, small and unique within a simulation.
+     */
+    int getSpeciesId();
+
+    /**
+     * @return (byte) The kind of the occupant, one of Field.PLANT, Field.PREY or Field.PREDATOR.
+     */
+    byte getKind();
+}
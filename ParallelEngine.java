@@ -0,0 +1,344 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An engine making the species act on several threads. The field is cut into square tiles and
+ * the tiles are coloured like a checkerboard with four colours, so that two tiles of the same
+ * colour are always separated by a tile of another colour. A step runs in four phases, one per
+ * colour, and the tiles of a phase are processed concurrently on a ForkJoinPool.
+ *
+ * An individual only ever reads or changes the cells next to it, so as long as tiles are at
+ * least MINIMUM_TILE_SIZE cells wide, two individuals acting at the same time can never reach
+ * the same cell. Each individual acts once per step, in the tile where it started the step.
+ * Newborns are collected per tile and merged into the list of species once all phases are done.
+ *
+ * Each individual draws its random numbers from its own stream, and the tiles of a phase never
+ * see each other's changes, so the outcome of a step does not depend on the number of threads.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class ParallelEngine implements SimulationEngine
+{
+    // The default width and depth of a tile, in cells.
+    private static final int DEFAULT_TILE_SIZE = 16;
+    // The smallest tile size for which tiles of the same colour can not interfere.
+    private static final int MINIMUM_TILE_SIZE = 4;
+    // The number of colours, and therefore of phases in a step.
+    private static final int COLOUR_COUNT = 4;
+
+    // List of species in the field.
+    private List<Species> species;
+    // The species of all the individuals ever given to the engine.
+    private final List<SpeciesDefinition> definitions;
+    // The field in which the species evolve.
+    private final Field field;
+    // The seed of the simulation, keying the random streams of the individuals.
+    private final long seed;
+    // The pool running the tiles of a phase.
+    private final ForkJoinPool pool;
+    // The width and depth of a tile, in cells.
+    private final int tileSize;
+    // The number of tiles across the width of the field.
+    private final int tileColumns;
+    // For each tile, the species that started the step in it.
+    private final List<List<Species>> tileSpecies;
+    // For each tile, the species born in it during the step.
+    private final List<List<Species>> tileNewborns;
+    // For each colour, the indexes of the tiles having that colour.
+    private final int[][] tilesByColour;
+    // The profiler timing the steps, or null when they are not timed.
+    private volatile StepProfiler profiler;
+
+    // The conditions of the step being run, read by the tile tasks.
+    private int stepNumber;
+    private boolean isSpring;
+    private boolean isNight;
+    private int temperature;
+    private boolean yearPassed;
+
+    /**
+     * Create an engine with no individuals, running on the common ForkJoinPool.
+     *
+     * @param field (Field) The field in which the species evolve.
+     * @param seed (long) The seed of the simulation.
+     */
+    public ParallelEngine(Field field, long seed)
+    {
+        this(field, seed, ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Create an engine with no individuals.
+     *
+     * @param field (Field) The field in which the species evolve.
+     * @param seed (long) The seed of the simulation.
+     * @param pool (ForkJoinPool) The pool running the tiles.
+     * @param tileSize (int) The width and depth of a tile, at least MINIMUM_TILE_SIZE.
+     */
+    public ParallelEngine(Field field, long seed, ForkJoinPool pool, int tileSize)
+    {
+        if (tileSize < MINIMUM_TILE_SIZE) {
+            throw new IllegalArgumentException("Tiles must be at least " + MINIMUM_TILE_SIZE + " cells wide, got " + tileSize);
+        }
+        this.field = field;
+        this.seed = seed;
+        this.pool = pool;
+        this.tileSize = tileSize;
+        species = new ArrayList<>();
+        definitions = new ArrayList<>();
+
+        tileColumns = (field.getWidth() + tileSize - 1) / tileSize;
+        int tileRows = (field.getDepth() + tileSize - 1) / tileSize;
+        tileSpecies = new ArrayList<>();
+        tileNewborns = new ArrayList<>();
+        for (int tile = 0; tile < tileRows * tileColumns; tile++) {
+            tileSpecies.add(new ArrayList<>());
+            tileNewborns.add(new ArrayList<>());
+        }
+
+        // Group the tiles by colour.
+        List<List<Integer>> colours = new ArrayList<>();
+        for (int colour = 0; colour < COLOUR_COUNT; colour++) {
+            colours.add(new ArrayList<>());
+        }
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for (int tileCol = 0; tileCol < tileColumns; tileCol++) {
+                int colour = (tileRow % 2) * 2 + (tileCol % 2);
+                colours.get(colour).add(tileRow * tileColumns + tileCol);
+            }
+        }
+        tilesByColour = new int[COLOUR_COUNT][];
+        for (int colour = 0; colour < COLOUR_COUNT; colour++) {
+            List<Integer> tiles = colours.get(colour);
+            tilesByColour[colour] = new int[tiles.size()];
+            for (int i = 0; i < tiles.size(); i++) {
+                tilesByColour[colour][i] = tiles.get(i);
+            }
+        }
+    }
+
+    /**
+     * Create the Animal, Predator or Plant object matching the definition and add it to the list of species.
+     *
+     * @param definition (SpeciesDefinition) The species of the individual.
+     * @param location (Location) The free location where the individual appears.
+     * @param randomAge (boolean) Whether an animal should be created with a random age.
+     */
+    public void spawn(SpeciesDefinition definition, Location location, boolean randomAge)
+    {
+        addDefinition(definition);
+        species.add(ObjectEngine.createSpecies(definition, field, location, randomAge));
+    }
+
+    /**
+     * Sort the species into their tiles, run the four phases, then remove the dead and add the newborns.
+     *
+     * @param step (int) The number of the step being run.
+     * @param isSpring (boolean) If the current season is spring.
+     * @param isNight (boolean) If it is currently night.
+     * @param temperature (int) The current temperature.
+     * @param yearPassed (boolean) If a year is passing on this step.
+     */
+    public void step(int step, boolean isSpring, boolean isNight, int temperature, boolean yearPassed)
+    {
+        this.stepNumber = step;
+        this.isSpring = isSpring;
+        this.isNight = isNight;
+        this.temperature = temperature;
+        this.yearPassed = yearPassed;
+
+        for (List<Species> tile : tileSpecies) {
+            tile.clear();
+        }
+        for (Species specie : species) {
+            Location location = specie.getLocation();
+            int tile = (location.getRow() / tileSize) * tileColumns + location.getCol() / tileSize;
+            tileSpecies.get(tile).add(specie);
+        }
+
+        for (int colour = 0; colour < COLOUR_COUNT; colour++) {
+            int[] tiles = tilesByColour[colour];
+            if (tiles.length > 0) {
+                pool.invoke(new PhaseAction(tiles, 0, tiles.length));
+            }
+        }
+
+        // Keep the survivors in their order, then add the newborns tile by tile.
+        // Newborns can already have been eaten by a neighbour acting after their birth.
+        long mergeStart = (profiler != null) ? System.nanoTime() : 0;
+        List<Species> nextSpecies = new ArrayList<>(species.size());
+        addSurvivors(species, nextSpecies);
+        for (List<Species> newborns : tileNewborns) {
+            addSurvivors(newborns, nextSpecies);
+            newborns.clear();
+        }
+        species = nextSpecies;
+        if (profiler != null) {
+            profiler.record(StepProfiler.MERGE, System.nanoTime() - mergeStart);
+        }
+    }
+
+    /**
+     * @return (int) The number of species objects in the list.
+     */
+    public int getPopulationSize()
+    {
+        return species.size();
+    }
+
+    /**
+     * Time the acts of the individuals, by kind, and the merge of the newborns in the given profiler.
+     *
+     * @param profiler (StepProfiler) The profiler, or null to stop timing.
+     */
+    public void setProfiler(StepProfiler profiler)
+    {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return (List<SpeciesDefinition>) The species of all the individuals ever given to the engine.
+     */
+    public List<SpeciesDefinition> getDefinitions()
+    {
+        return new ArrayList<>(definitions);
+    }
+
+    /**
+     * Write the record of every species object to a checkpoint, in the order of the list.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, with room for getPopulationSize() records.
+     */
+    public void writeAgents(ByteBuffer buffer)
+    {
+        for (Species specie : species) {
+            specie.writeState(buffer);
+        }
+    }
+
+    /**
+     * Recreate the species objects read from a checkpoint at the end of the list.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the first record.
+     * @param count (int) The number of records to read.
+     * @param definitions (SpeciesDefinition[]) The species of the individuals, indexed by species id.
+     */
+    public void readAgents(ByteBuffer buffer, int count, SpeciesDefinition[] definitions)
+    {
+        for (int i = 0; i < count; i++) {
+            Species specie = ObjectEngine.readSpecies(buffer, definitions, field);
+            addDefinition(specie.getDefinition());
+            species.add(specie);
+        }
+    }
+
+    /**
+     * Remember a species, if it is new to the engine.
+     *
+     * @param definition (SpeciesDefinition) The species of an individual given to the engine.
+     */
+    private void addDefinition(SpeciesDefinition definition)
+    {
+        if (!definitions.contains(definition)) {
+            definitions.add(definition);
+        }
+    }
+
+    /**
+     * Empty the list of species.
+     */
+    public void clear()
+    {
+        species.clear();
+    }
+
+    /**
+     * Copy the species that are still alive from one list to another.
+     *
+     * @param from (List<Species>) The species to copy.
+     * @param to (List<Species>) The list receiving the living species.
+     */
+    private void addSurvivors(List<Species> from, List<Species> to)
+    {
+        for (Species specie : from) {
+            if (specie.isAlive()) {
+                to.add(specie);
+            }
+        }
+    }
+
+    /**
+     * Make the species that started the step in the given tile act.
+     *
+     * @param tile (int) The index of the tile.
+     */
+    private void actTile(int tile)
+    {
+        List<Species> newborns = tileNewborns.get(tile);
+        StepProfiler profiler = this.profiler;
+        for (Species specie : tileSpecies.get(tile)) {
+            // The specie may have been eaten while a neighbouring tile was acting.
+            if (specie.isAlive()) {
+                if (specie instanceof Plant) {
+                    Plant tempPlant = (Plant) specie;
+                    if (tempPlant.getIsSpring() != isSpring) {
+                        tempPlant.toggleIsSpring();
+                    }
+                }
+                Randomizer.beginStream(seed, stepNumber, specie.getIndividualId());
+                if (profiler == null) {
+                    specie.act(newborns, isNight, temperature, yearPassed);
+                }
+                else {
+                    long start = System.nanoTime();
+                    specie.act(newborns, isNight, temperature, yearPassed);
+                    profiler.record(StepProfiler.actPhase(specie.getKind()), System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes a range of the tiles of one colour, splitting it until each task has a single tile.
+     */
+    private class PhaseAction extends RecursiveAction
+    {
+        // Tasks are never serialized, declared as RecursiveAction is Serializable.
+        private static final long serialVersionUID = 1L;
+
+        // The tiles of the phase.
+        private final int[] tiles;
+        // The range of tiles handled by this action.
+        private final int from, to;
+
+        /**
+         * @param tiles (int[]) The tiles of the phase.
+         * @param from (int) The first tile of the range, inclusive.
+         * @param to (int) The last tile of the range, exclusive.
+         */
+        PhaseAction(int[] tiles, int from, int to)
+        {
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Act on a single tile, or split the range in two.
+         */
+        protected void compute()
+        {
+            if (to - from == 1) {
+                actTile(tiles[from]);
+            }
+            else {
+                int middle = (from + to) / 2;
+                invokeAll(new PhaseAction(tiles, from, middle), new PhaseAction(tiles, middle, to));
+            }
+        }
+    }
+}
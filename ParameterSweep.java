@@ -0,0 +1,465 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a simulation for every combination of the values of some parameters, to compare them
+ * without editing the .csv files and running them one at a time. Each parameter is an axis:
+ *     habitat      the name of the habitat
+ *     scenario     the name of the climate change scenario
+ *     seed         the seed of the simulation, otherwise derived from the number of the run
+ *     an animal    the number of individuals of the animal placed in the field
+ *     element.column   a value of a .csv file, for instance tiger.breedingProbability or savanna.plantConcentration
+ * The habitat and the scenario must be given, with at least one value each, taken from the
+ * habitats of the .csv file and the scenarios of Initializer.
+ *
+ * The runs are independent headless simulations, spread over a ForkJoinPool of a bounded number
+ * of threads, one per core unless told otherwise. Each thread builds its simulations with its own
+ * Initializer, reading the .csv files from the catalogs shared by all, and only holds the
+ * simulation it is running, so the memory used does not depend on the number of runs. The runs
+ * are numbered in the order of the combinations, the last axis changing fastest, and a line is
+ * written to a CSV file as each run ends:
+ *     run,axis1,axis2,...,seed,steps,seconds,final_species1,final_species2,...
+ * where steps is the number of steps run (fewer than asked if the simulation stopped being viable,
+ * -1 if it could not be built) and the species columns are the final number of living individuals
+ * of the animals of the axes and of the plants. The lines are in the order the runs end.
+ *
+ * From the command line:
+ *     java ParameterSweep steps file axis=value,value... [engine=type] [depth=n] [width=n] [threads=n]
+ * where an integer value can be a range a..b, for instance:
+ *     java ParameterSweep 500 sweep.csv habitat=savanna,jungle scenario=none,high tiger=20..30 tiger.breedingProbability=0.6,0.85 seed=1..10
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class ParameterSweep
+{
+    // The axis of the habitats.
+    public static final String HABITAT_AXIS = "habitat";
+    // The axis of the climate change scenarios.
+    public static final String SCENARIO_AXIS = "scenario";
+    // The axis of the seeds.
+    public static final String SEED_AXIS = "seed";
+    // The usage printed when the arguments are wrong.
+    private static final String USAGE = "usage: java ParameterSweep steps file axis=value,value... [engine=OBJECT|COMPACT|PARALLEL] [depth=n] [width=n] [threads=n]";
+
+    // The number of steps of each run.
+    private final int steps;
+    // The values of each axis, in the order the axes were added.
+    private final LinkedHashMap<String, List<String>> axes;
+    // The type of engine of the simulations.
+    private EngineType engineType;
+    // The depth and width of the grid of the simulations.
+    private int depth, width;
+    // The number of runs in progress at the same time.
+    private int parallelism;
+    // The names of the animals and of the plants, read from the .csv files.
+    private final List<String> animalNames, plantNames;
+    // The names of the habitats and of the climate change scenarios a simulation can be built with.
+    private final List<String> habitatNames, scenarioNames;
+
+    /**
+     * Create a sweep with no axis, of simulations run by the default engine on a default grid,
+     * one at a time per core.
+     *
+     * @param steps (int) The number of steps of each run.
+     */
+    public ParameterSweep(int steps)
+    {
+        this.steps = steps;
+        axes = new LinkedHashMap<>();
+        engineType = EngineType.OBJECT;
+        depth = Initializer.DEFAULT_DEPTH;
+        width = Initializer.DEFAULT_WIDTH;
+        parallelism = Runtime.getRuntime().availableProcessors();
+        animalNames = new AnimalCSVReader().getChoicesList();
+        plantNames = new PlantCSVReader().getChoicesList();
+        Initializer initializer = new Initializer(false);
+        habitatNames = initializer.getHabitatChoices();
+        scenarioNames = initializer.getScenarioChoices();
+    }
+
+    /**
+     * Add an axis, every value of which is combined with every value of the other axes.
+     *
+     * @param name (String) The name of the axis: habitat, scenario, seed, an animal or element.column.
+     * @param values (List<String>) The values of the axis.
+     * @throws IllegalArgumentException If the axis was already added, has no value, is not a number where one is expected,
+     *                                  or names a habitat or a scenario that does not exist.
+     */
+    public void addAxis(String name, List<String> values)
+    {
+        if (axes.containsKey(name) || values.isEmpty()) {
+            throw new IllegalArgumentException("Axis " + name + " is repeated or has no value");
+        }
+        if (name.equals(HABITAT_AXIS) || name.equals(SCENARIO_AXIS)) {
+            List<String> choices = name.equals(HABITAT_AXIS) ? habitatNames : scenarioNames;
+            for (String value : values) {
+                if (!choices.contains(value)) {
+                    throw new IllegalArgumentException("Axis " + name + " takes one of " + choices + ", not " + value);
+                }
+            }
+        }
+        if (name.equals(SEED_AXIS) || animalNames.contains(name)) {
+            for (String value : values) {
+                try {
+                    if (name.equals(SEED_AXIS)) {
+                        Long.parseLong(value);
+                    }
+                    else {
+                        Integer.parseInt(value);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Axis " + name + " takes whole numbers, not " + value);
+                }
+            }
+        }
+        axes.put(name, new ArrayList<>(values));
+    }
+
+    /**
+     * Choose the engine of the simulations.
+     *
+     * @param engineType (EngineType) The type of engine to use.
+     */
+    public void setEngineType(EngineType engineType)
+    {
+        this.engineType = engineType;
+    }
+
+    /**
+     * Choose the size of the grid of the simulations.
+     *
+     * @param depth (int) The number of rows of the grid.
+     * @param width (int) The number of columns of the grid.
+     * @throws IllegalArgumentException If the grid would be empty or larger than Field.MAX_CELL_COUNT cells.
+     */
+    public void setFieldSize(int depth, int width)
+    {
+        Field.checkSize(depth, width);
+        this.depth = depth;
+        this.width = width;
+    }
+
+    /**
+     * Choose the number of runs in progress at the same time.
+     *
+     * @param parallelism (int) The number of threads running the simulations.
+     * @throws IllegalArgumentException If the number is not positive.
+     */
+    public void setParallelism(int parallelism)
+    {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return (long) The number of runs, one per combination of the values of the axes.
+     */
+    public long getRunCount()
+    {
+        long count = 1;
+        for (List<String> values : axes.values()) {
+            count = Math.multiplyExact(count, values.size());
+        }
+        return count;
+    }
+
+    /**
+     * Run every combination and write a line per run to a CSV file.
+     *
+     * @param output (Path) The file to write, replaced if it exists.
+     * @return (long) The number of runs whose simulation could not be built or failed.
+     * @throws IOException If the file could not be written.
+     * @throws IllegalArgumentException If the habitat or the scenario axis is missing, or an axis is unknown.
+     */
+    public long run(Path output) throws IOException
+    {
+        if (!axes.containsKey(HABITAT_AXIS) || !axes.containsKey(SCENARIO_AXIS)) {
+            throw new IllegalArgumentException("The habitat and scenario axes must be given");
+        }
+        Map<String, String> firstParameters = new HashMap<>();
+        for (String name : axes.keySet()) {
+            if (!name.equals(HABITAT_AXIS) && !name.equals(SCENARIO_AXIS) && !name.equals(SEED_AXIS) && !animalNames.contains(name)) {
+                firstParameters.put(name, axes.get(name).get(0));
+            }
+        }
+        new Initializer(false).setParameterOverrides(firstParameters);
+
+        List<String> speciesNames = new ArrayList<>();
+        for (String name : axes.keySet()) {
+            if (animalNames.contains(name)) {
+                speciesNames.add(name);
+            }
+        }
+        speciesNames.addAll(plantNames);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("run");
+            for (String name : axes.keySet()) {
+                header.append(',').append(name);
+            }
+            if (!axes.containsKey(SEED_AXIS)) {
+                header.append(',').append(SEED_AXIS);
+            }
+            header.append(",steps,seconds");
+            for (String name : speciesNames) {
+                header.append(",final_").append(name);
+            }
+            writer.write(header.append('\n').toString());
+
+            // Each thread of the pool builds its simulations with its own initializer.
+            ThreadLocal<Initializer> initializers = ThreadLocal.withInitial(() -> {
+                Initializer initializer = new Initializer(false);
+                initializer.setEngineType(engineType);
+                initializer.setFieldSize(depth, width);
+                return initializer;
+            });
+            RunAction runs = new RunAction(0, getRunCount(), initializers, speciesNames, writer);
+            pool.invoke(runs);
+            return runs.failures;
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Run one combination and write its line.
+     *
+     * @param run (long) The number of the run.
+     * @param initializer (Initializer) The initializer of the calling thread.
+     * @param speciesNames (List<String>) The species whose final counts are written.
+     * @param writer (Writer) The file written, shared by the threads.
+     * @return (boolean) true if the simulation was built and run.
+     */
+    private boolean runCombination(long run, Initializer initializer, List<String> speciesNames, Writer writer)
+    {
+        String habitat = null;
+        String scenario = null;
+        long seed = RandomStream.mix(run);
+        HashMap<String, Integer> animals = new HashMap<>();
+        Map<String, String> parameters = new HashMap<>();
+        StringBuilder line = new StringBuilder().append(run);
+
+        // The last axis changes fastest.
+        List<String> names = new ArrayList<>(axes.keySet());
+        String[] values = new String[names.size()];
+        long rest = run;
+        for (int axis = names.size() - 1; axis >= 0; axis--) {
+            List<String> axisValues = axes.get(names.get(axis));
+            values[axis] = axisValues.get((int) (rest % axisValues.size()));
+            rest /= axisValues.size();
+        }
+        for (int axis = 0; axis < names.size(); axis++) {
+            String name = names.get(axis);
+            line.append(',').append(values[axis]);
+            if (name.equals(HABITAT_AXIS)) {
+                habitat = values[axis];
+            }
+            else if (name.equals(SCENARIO_AXIS)) {
+                scenario = values[axis];
+            }
+            else if (name.equals(SEED_AXIS)) {
+                seed = Long.parseLong(values[axis]);
+            }
+            else if (animalNames.contains(name)) {
+                animals.put(name, Integer.parseInt(values[axis]));
+            }
+            else {
+                parameters.put(name, values[axis]);
+            }
+        }
+        if (!axes.containsKey(SEED_AXIS)) {
+            line.append(',').append(seed);
+        }
+
+        boolean succeeded = false;
+        long start = System.nanoTime();
+        try {
+            initializer.setSeed(seed);
+            initializer.setParameterOverrides(parameters);
+            Simulator simulator = initializer.initializeSimulation(habitat, animals, scenario, new ObserverGroup());
+            if (simulator != null) {
+                simulator.simulate(steps);
+                FieldStats stats = new FieldStats(simulator.getField());
+                line.append(',').append(simulator.getCurrentStep()).append(',').append(String.format("%.3f", (System.nanoTime() - start) / 1e9));
+                for (String name : speciesNames) {
+                    line.append(',').append(stats.getCount(name));
+                }
+                succeeded = true;
+            }
+        }
+        catch (RuntimeException e) {
+            System.err.println("Run " + run + " failed: " + e);
+        }
+        if (!succeeded) {
+            line.append(",-1,").append(String.format("%.3f", (System.nanoTime() - start) / 1e9));
+            for (int i = 0; i < speciesNames.size(); i++) {
+                line.append(',');
+            }
+        }
+        line.append('\n');
+        try {
+            synchronized (writer) {
+                writer.write(line.toString());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return succeeded;
+    }
+
+    /**
+     * Runs a range of runs, splitting it until each task has a single run, so that idle threads
+     * take over the runs of the busy ones.
+     */
+    private class RunAction extends RecursiveAction
+    {
+        // Tasks are never serialized, declared as RecursiveAction is Serializable.
+        private static final long serialVersionUID = 1L;
+
+        // The range of runs handled by this action.
+        private final long from, to;
+        // The initializer of each thread.
+        private final ThreadLocal<Initializer> initializers;
+        // The species whose final counts are written.
+        private final List<String> speciesNames;
+        // The file written.
+        private final Writer writer;
+        // The number of runs of the range that failed, once done.
+        private long failures;
+
+        /**
+         * @param from (long) The first run of the range, inclusive.
+         * @param to (long) The last run of the range, exclusive.
+         * @param initializers (ThreadLocal<Initializer>) The initializer of each thread.
+         * @param speciesNames (List<String>) The species whose final counts are written.
+         * @param writer (Writer) The file written.
+         */
+        RunAction(long from, long to, ThreadLocal<Initializer> initializers, List<String> speciesNames, Writer writer)
+        {
+            this.from = from;
+            this.to = to;
+            this.initializers = initializers;
+            this.speciesNames = speciesNames;
+            this.writer = writer;
+        }
+
+        /**
+         * Run a single combination, or split the range in two.
+         */
+        protected void compute()
+        {
+            if (to - from == 1) {
+                failures = runCombination(from, initializers.get(), speciesNames, writer) ? 0 : 1;
+            }
+            else {
+                long middle = (from + to) / 2;
+                RunAction first = new RunAction(from, middle, initializers, speciesNames, writer);
+                RunAction second = new RunAction(middle, to, initializers, speciesNames, writer);
+                invokeAll(first, second);
+                failures = first.failures + second.failures;
+            }
+        }
+    }
+
+    /**
+     * Read the values of an axis: values separated by commas, an integer range a..b standing for
+     * every integer from a to b.
+     *
+     * @param text (String) The values.
+     * @return (List<String>) The values of the axis.
+     */
+    private static List<String> parseValues(String text)
+    {
+        List<String> values = new ArrayList<>();
+        for (String value : text.split(",")) {
+            int range = value.indexOf("..");
+            if (range > 0) {
+                long first = Long.parseLong(value.substring(0, range));
+                long last = Long.parseLong(value.substring(range + 2));
+                for (long i = first; i <= last; i++) {
+                    values.add(Long.toString(i));
+                }
+            }
+            else {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Run a sweep from the command line arguments, and print the number of runs and the time taken.
+     *
+     * @param args (String[]) The number of steps and the output file, followed by axis=values pairs and options.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        ParameterSweep sweep = new ParameterSweep(Integer.parseInt(args[0]));
+        Path output = Paths.get(args[1]);
+        int depth = Initializer.DEFAULT_DEPTH;
+        int width = Initializer.DEFAULT_WIDTH;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                int equals = args[i].indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException(USAGE);
+                }
+                String key = args[i].substring(0, equals);
+                String value = args[i].substring(equals + 1);
+                if (key.equals("engine")) {
+                    sweep.setEngineType(EngineType.valueOf(value.toUpperCase()));
+                }
+                else if (key.equals("depth")) {
+                    depth = Integer.parseInt(value);
+                }
+                else if (key.equals("width")) {
+                    width = Integer.parseInt(value);
+                }
+                else if (key.equals("threads")) {
+                    sweep.setParallelism(Integer.parseInt(value));
+                }
+                else {
+                    sweep.addAxis(key, parseValues(value));
+                }
+            }
+            sweep.setFieldSize(depth, width);
+            long start = System.nanoTime();
+            long failures = sweep.run(output);
+            System.out.printf("%d runs in %.3f s, %d failed%n", sweep.getRunCount(), (System.nanoTime() - start) / 1e9, failures);
+        }
+        catch (IllegalArgumentException | ArithmeticException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        catch (IOException e) {
+            System.err.println("Can not write " + output + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
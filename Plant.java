@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -25,18 +26,14 @@ public class Plant extends Species
     /**
      * Create an instance of Plant
      *
+     * @param definition (SpeciesDefinition) The characteristics of the plant's species.
      * @param field (Field) The field currently occupied.
      * @param location (Location) The location within the field.
-     * @param name (String) The name of the plant
-     * @param maximumTemperature (int) The maximum temperature that the plant can withstand
-     * @param minimumTemperature (int) The minimum temperature that the plant can withstand
-     * @param nutritionalValue (int) The nutritional value given to the specie that eats this plant
-     * @param reproductionProbability (double) The probability that this plant will reproduce
      * @param maxHealth (int) The plant's maximum health
      */
-    public Plant(Field field, Location location, String name, int maximumTemperature, int minimumTemperature, int nutritionalValue, double reproductionProbability, int maxHealth)
+    public Plant(SpeciesDefinition definition, Field field, Location location, int maxHealth)
     {
-        super(field, location, name, maximumTemperature, minimumTemperature, nutritionalValue, reproductionProbability);
+        super(definition, field, location);
         this.maxHealth = maxHealth;
         currentHealth = maxHealth;
         isSpring = true;
@@ -44,6 +41,30 @@ public class Plant extends Species
         deadDueTemperature = false;
     }
 
+    /**
+     * Recreate a plant saved in a checkpoint. A plant that died back is not placed in the field.
+     *
+     * @param definition (SpeciesDefinition) The characteristics of the plant's species.
+     * @param field (Field) The field of the plant.
+     * @param location (Location) The location of the plant, kept when it died back.
+     * @param id (long) The identifier of the plant.
+     * @param currentHealth (int) The plant's health.
+     * @param maxHealth (int) The plant's maximum health.
+     * @param flags (byte) Combination of Checkpoint.DORMANT, Checkpoint.CAN_REGROW and Checkpoint.IS_SPRING.
+     */
+    public Plant(SpeciesDefinition definition, Field field, Location location, long id, int currentHealth, int maxHealth, byte flags)
+    {
+        super(definition, field, location, id, (flags & Checkpoint.DORMANT) == 0);
+        this.maxHealth = maxHealth;
+        this.currentHealth = currentHealth;
+        isSpring = (flags & Checkpoint.IS_SPRING) != 0;
+        canRegrow = (flags & Checkpoint.CAN_REGROW) != 0;
+        deadDueTemperature = (flags & Checkpoint.DORMANT) != 0;
+        if (deadDueTemperature) {
+            field.countDieBack(getSpeciesId());
+        }
+    }
+
     /**
      * Imitate a plant's step by doing the following:
      * 1) if the plant can't survive the temperature, then it dies
@@ -64,7 +85,7 @@ public class Plant extends Species
         // 1)
         if (! deadDueTemperature && ! survivesTemperature(temperature))
         {
-            setDead();
+            dieBack();
         }
         // 2)
         else if (! isNight)
@@ -101,11 +122,11 @@ public class Plant extends Species
             Field field = getField();
             if (field != null)
             {
-                List<Location> free = field.getFreeAdjacentLocations(getLocation());
+                int freeCell = field.freeAdjacentCell(getCellIndex());
 
-                if (free.size() > 0) {
-                    Location loc = free.remove(0);
-                    Plant newPlant = new Plant(field, loc, getName(), getMaximumTemperature(), getMinimumTemperature(), getNutritionalValue(), getReproductionProbability(), maxHealth);
+                if (freeCell >= 0) {
+                    Location loc = field.getLocation(freeCell);
+                    Plant newPlant = new Plant(getDefinition(), field, loc, maxHealth);
                     newPlant.setIsSpring(isSpring);
                     newPlants.add(newPlant);
                 }
@@ -114,15 +135,16 @@ public class Plant extends Species
     }
 
     /**
-     * The plant dies because of the temperature or because it was eaten.
-     * Its location in the field is cleared, but it still remembers its field and location
+     * The plant dies back because of the temperature. It stays alive, and its location in the field
+     * is cleared, but it still remembers its field and location to regrow there.
      */
-    protected void setDead()
+    private void dieBack()
     {
         if(getLocation() != null) {
             deadDueTemperature = true;
             canRegrow = false; // set to false because if left as true, it could regrow the next step
             getField().clear(getLocation());
+            getField().countDieBack(getSpeciesId());
         }
     }
 
@@ -135,6 +157,7 @@ public class Plant extends Species
         if(getField().getObjectAt(getLocation()) == null && canRegrow)   {
             deadDueTemperature = false;
             getField().place(this, getLocation());
+            getField().countRegrowth(getSpeciesId());
             currentHealth = maxHealth;
         }
     }
@@ -158,7 +181,7 @@ public class Plant extends Species
         currentHealth--;
 
         if (currentHealth <= 0)    {
-            super.setDead();
+            setDead(DeathCause.GRAZING);
         }
     }
 
@@ -172,6 +195,34 @@ public class Plant extends Species
         canRegrow = true;
     }
 
+    /**
+     * Write the record of the plant to a checkpoint.
+     *
+     * @param buffer (ByteBuffer) The checkpoint.
+     */
+    void writeState(ByteBuffer buffer)
+    {
+        byte flags = 0;
+        if (deadDueTemperature) {
+            flags |= Checkpoint.DORMANT;
+        }
+        if (canRegrow) {
+            flags |= Checkpoint.CAN_REGROW;
+        }
+        if (isSpring) {
+            flags |= Checkpoint.IS_SPRING;
+        }
+        Checkpoint.putAgent(buffer, getSpeciesId(), getCellIndex(), getIndividualId(), 0, currentHealth, maxHealth, flags);
+    }
+
+    /**
+     * @return (byte) Field.PLANT.
+     */
+    public byte getKind()
+    {
+        return Field.PLANT;
+    }
+
     /**
      * @return (boolean) true if the current season is spring, false otherwise.
      */
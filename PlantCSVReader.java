@@ -78,6 +78,18 @@ public class PlantCSVReader extends CSVReader
         return FILE_NAME;
     }
 
+    /**
+     * Build the definition of the plant whose data was last read. The definition is shared by
+     * every individual of this plant's species.
+     *
+     * @param id (int) The identifier to give to the species.
+     * @return (SpeciesDefinition) The definition of the plant's species.
+     */
+    public SpeciesDefinition createDefinition(int id)
+    {
+        return new SpeciesDefinition(id, name, maximumTemperature, minimumTemperature, nutritionalValue, reproductionProbability, maxHealth);
+    }
+
     /**
      * @return (int) The plant's nutritional value.
      */
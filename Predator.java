@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A class representing the characteristics of a predator.
@@ -14,33 +13,35 @@ import java.util.ArrayList;
  */
 public class Predator extends Animal
 {
-    // The predator's strength, if it is strong enough it can attack other predators
-    private final int strength;
-
     /**
-     * Create a new predator with given specifications.
+     * Create a new predator of the given species.
      *
-     * @param strength (int) the predator's strength
+     * @param definition (SpeciesDefinition) the characteristics of the predator's species, including its strength
      * @param field (Field) the field where the simulation takes place
      * @param location (Location) the Location at which the predator should appear
-     * @param name (String) the predator's name (its species' name)
-     * @param maximumTemperature (int) the maximum temperature the predator can survive to
-     * @param minimumTemperature (int) the minimum temperature an predator can survive to
-     * @param nutritionalValue (int) the predator's nutritional value
-     * @param reproductionProbability (double) the probability that the predator reproduces at each step after a given minimum breeding age
-     * @param maxAge (int) the predator's life expectancy
-     * @param breedingAge (int) the age at which predator can start to reproduce
-     * @param maxLitterSize (int) the maximum number of children the predator can have in one reproduction
      * @param randomAge (boolean) whether or not predator should be created with a random age
-     * @param hibernates (boolean) whether or not predator is able to hibernate
-     * @param isNocturnal (boolean) whether or not predator is more active at night
      */
-    public Predator (int strength, Field field, Location location, String name, int maximumTemperature, int minimumTemperature, int nutritionalValue, double reproductionProbability, int maxAge, int breedingAge, int maxLitterSize,  boolean randomAge, boolean hibernates, boolean isNocturnal)
+    public Predator (SpeciesDefinition definition, Field field, Location location, boolean randomAge)
     {
         // call to the constructor of the Animal class
-        super(field, location, name, maximumTemperature, minimumTemperature, nutritionalValue, reproductionProbability, maxAge, breedingAge, maxLitterSize, randomAge, hibernates, isNocturnal);
+        super(definition, field, location, randomAge);
+    }
 
-        this.strength = strength;
+    /**
+     * Recreate a predator saved in a checkpoint.
+     *
+     * @param definition (SpeciesDefinition) the characteristics of the predator's species
+     * @param field (Field) the field where the simulation takes place
+     * @param location (Location) the Location of the predator
+     * @param id (long) the identifier of the predator
+     * @param age (int) the predator's age
+     * @param foodLevel (int) the predator's food level
+     * @param hiberSteps (int) the predator's number of steps in hibernation
+     * @param flags (byte) combination of Checkpoint.FEMALE and Checkpoint.IN_HIBERNATION
+     */
+    public Predator(SpeciesDefinition definition, Field field, Location location, long id, int age, int foodLevel, int hiberSteps, byte flags)
+    {
+        super(definition, field, location, id, age, foodLevel, hiberSteps, flags);
     }
 
     /**
@@ -53,91 +54,92 @@ public class Predator extends Animal
      */
     protected void makeMove(List<Species> newSpecies)
     {
-        ArrayList<Animal> neighboringAnimals = getNeighboringAnimalsList();
-        checkForAttack(neighboringAnimals);
+        Neighbourhood neighbourhood = scanNeighbourhood();
+        checkForAttack(neighbourhood);
 
         if (isAlive()) {
-            if (canReproduce(neighboringAnimals)){
-                reproduce(newSpecies);
+            if (canReproduce(neighbourhood)){
+                reproduce(newSpecies, neighbourhood);
             }
 
-            // Move towards a source of food if found.
-            Location newLocation = null;
+            // Eat if a prey is found.
+            Field field = getField();
+            int preyCell = -1;
             if (isNotFull()) {
-                newLocation = findFoodAndEat(neighboringAnimals);
+                preyCell = findFoodAndEat(neighbourhood);
             } 
 
-            if(newLocation == null) {
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            // Try to move to a free location, the cell freed by the eaten prey is only used if no other cell is free.
+            int newCell = neighbourhood.takeFreeCell(field);
+            if(newCell < 0) {
+                newCell = preyCell;
             }
 
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell >= 0) {
+                setLocation(field.getLocation(newCell));
             }
             else {
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
 
     /**
-     * Tries to find a prey in one of the neighboring cell. If a prey is found, it is eaten and its location is returned.
+     * Tries to find a prey in one of the neighboring cell. If a prey is found, it is eaten and its cell is returned.
      *
-     * @param  neighboringAnimals (ArrayList<Animal>) A list of neighboring animals.
-     * @return (Location) the location of the eaten prey, null if no prey was found.
+     * @param  neighbourhood (Neighbourhood) The predator's neighbourhood.
+     * @return (int) the index of the cell of the eaten prey, -1 if no prey was found.
      */
-    private Location findFoodAndEat(ArrayList<Animal> neighboringAnimals)
+    private int findFoodAndEat(Neighbourhood neighbourhood)
     {
-        for (Animal animal : neighboringAnimals) {
-            if(!(animal instanceof Predator)){
-                animal.setDead();
+        Field field = getField();
+        int preyCount = neighbourhood.getCount(Field.PREY);
+        for (int i = 0; i < preyCount; i++) {
+            int cell = neighbourhood.getCell(Field.PREY, i);
+            Animal animal = (Animal) field.getObjectAt(cell);
+            if (animal != null && animal.isAlive()) {
+                animal.setDead(DeathCause.PREDATION);
                 foodLevel += animal.getNutritionalValue();
-                return animal.getLocation();
+                return cell;
             }
         }
         // No food found
-        return null;
+        return -1;
     }
 
     /**
      * Check if predator if under attack from a horde of another species of predator. If a horde is attacking it and the horde's strength
      * is greater than the predator's one, the horde members eat it.
      *
-     * @param  neighboringAnimals (ArrayList<Animal>) A list of neighboring animals.
+     * @param  neighbourhood (Neighbourhood) The predator's neighbourhood.
      */
-    private void checkForAttack(ArrayList<Animal> neighboringAnimals)
+    protected void checkForAttack(Neighbourhood neighbourhood)
     {
-        ArrayList<Predator> hordeMembers = new ArrayList<>();
+        Field field = getField();
+        int predatorCount = neighbourhood.getCount(Field.PREDATOR);
 
-        for (int i =0; i < neighboringAnimals.size(); i++)
+        for (int i = 0; i < predatorCount; i++)
         {
-            if (neighboringAnimals.get(i) instanceof Predator) {
-
-                Predator neighboringPredator = (Predator)neighboringAnimals.get(i);
-                String nameOfInvestigatedHorde = neighboringPredator.getName();
-                
-                if(! this.getName().equals(nameOfInvestigatedHorde))
-                {
-                    int totalHordeStrength =  neighboringPredator.getStrength();
-
-                    hordeMembers.add(neighboringPredator);
-                    for (int j =0; j < neighboringAnimals.size(); j++) {
-                        if (nameOfInvestigatedHorde.equals(neighboringAnimals.get(j).getName())) {
-                            Predator predatorObject = (Predator)neighboringAnimals.get(i);
-                            totalHordeStrength += predatorObject.getStrength();
-                            hordeMembers.add(predatorObject);
-                        }
-                    }
-                    if (totalHordeStrength > strength) {
-                        attackedByHorde(hordeMembers);
-                        break;
-                    } else {
-                        hordeMembers.clear();
+            Predator neighboringPredator = (Predator) field.getObjectAt(neighbourhood.getCell(Field.PREDATOR, i));
+            int investigatedHorde = neighboringPredator.getSpeciesId();
+
+            if(this.getSpeciesId() != investigatedHorde)
+            {
+                // The investigated predator counts once, then once more for each neighboring predator of its species, itself included.
+                int hordeSize = 1;
+                for (int j = 0; j < predatorCount; j++) {
+                    Predator predatorObject = (Predator) field.getObjectAt(neighbourhood.getCell(Field.PREDATOR, j));
+                    if (predatorObject.getSpeciesId() == investigatedHorde) {
+                        hordeSize++;
                     }
                 }
+                int totalHordeStrength = neighboringPredator.getStrength() * hordeSize;
+                if (totalHordeStrength > getStrength()) {
+                    attackedByHorde(neighboringPredator, hordeSize);
+                    break;
+                }
             }
         }
     }
@@ -146,16 +148,17 @@ public class Predator extends Animal
      * Animal is under attack by a horde whose strength is greater than its own. It is eaten by the horde and dies. Its nutritional value
      * is therefore shared
      *
-     * @param hordeMembers (ArrayList<Predator>) List of the predators constituting the horde.
+     * @param hordeMember (Predator) The member of the horde found first, which all the shares go to.
+     * @param hordeSize (int) The number of shares the nutritional value is divided into.
      */
-    private void attackedByHorde(ArrayList<Predator> hordeMembers)
+    private void attackedByHorde(Predator hordeMember, int hordeSize)
     {
         // Sharing predator's nutritional value amongst the various horde members.
-        int foodLevelAddedToEachHordeMember = this.getNutritionalValue() / hordeMembers.size();
-        for (Predator predator : hordeMembers) {
-            predator.incrementFoodLevel(foodLevelAddedToEachHordeMember);
+        int foodLevelAddedToEachHordeMember = this.getNutritionalValue() / hordeSize;
+        for (int i = 0; i < hordeSize; i++) {
+            hordeMember.incrementFoodLevel(foodLevelAddedToEachHordeMember);
         }
-        this.setDead();
+        this.setDead(DeathCause.HORDE);
     }
 
     /**
@@ -163,22 +166,34 @@ public class Predator extends Animal
      * features as their "parent" except the sex which is randomized, their age and foodLevel are not randomized.
      *
      * @param newOfThisKind (List<Species>) The list of species to which newborns must be added.
+     * @param neighbourhood (Neighbourhood) The predator's neighbourhood, the cells used by the newborns are taken from it.
      */
-    protected void reproduce(List<Species> newOfThisKind)
+    protected void reproduce(List<Species> newOfThisKind, Neighbourhood neighbourhood)
     {
         Field field = getField();
         if (field != null)
         {
-            List<Location> free = field.getFreeAdjacentLocations(getLocation());
             int births = numberOfBirths();
-            for(int b = 0; b < births && free.size() > 0; b++) {
-                Location loc = free.remove(0);
-                Predator young = new Predator(strength, field, loc, getName(), getMaximumTemperature(), getMinimumTemperature(), getNutritionalValue(), getReproductionProbability(), getMaxAge(), getBreedingAge(), getMaxLitterSize(),false, getHibernates(), getIsNocturnal());
+            for(int b = 0; b < births; b++) {
+                int cell = neighbourhood.takeFreeCell(field);
+                if (cell < 0) {
+                    break;
+                }
+                Location loc = field.getLocation(cell);
+                Predator young = new Predator(getDefinition(), field, loc, false);
                 newOfThisKind.add(young);
             }
         }
     }
 
+    /**
+     * @return (byte) Field.PREDATOR.
+     */
+    public byte getKind()
+    {
+        return Field.PREDATOR;
+    }
+
     /**
      * Returns the predator's strength, public so that other predators can consult the strength of a pontential horde this predator could
      * be a part of.
@@ -186,6 +201,6 @@ public class Predator extends Animal
      * @return (int) the predator's strength.
      */
     public int getStrength() {
-        return strength;
+        return getDefinition().getStrength();
     }
 }
\ No newline at end of file
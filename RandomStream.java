@@ -0,0 +1,77 @@
+import java.util.Random;
+
+/**
+ * A counter-based random generator. The numbers it produces only depend on a key and on how
+ * many numbers were drawn since the key was set, so a stream can be restarted at any point
+ * without keeping any state from previous steps. Each value is the SplitMix64 mix of the key
+ * and the counter.
+ *
+ * A stream is not thread safe: the Randomizer gives each thread its own.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class RandomStream extends Random
+{
+    // Streams are never serialized, declared as Random is Serializable.
+    private static final long serialVersionUID = 1L;
+    // The odd constant separating consecutive values of a SplitMix64 sequence.
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // The key of the stream.
+    private long key;
+    // The number of values drawn since the key was set.
+    private long counter;
+
+    /**
+     * Create a stream with a key of 0.
+     */
+    public RandomStream()
+    {
+        super(0);
+    }
+
+    /**
+     * Restart the stream with the given key.
+     *
+     * @param key (long) The new key of the stream.
+     */
+    public void reset(long key)
+    {
+        this.key = key;
+        counter = 0;
+    }
+
+    /**
+     * @return (long) The next 64 random bits of the stream.
+     */
+    public long nextLong()
+    {
+        counter++;
+        return mix(key + counter * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Generate the next random bits, used by every other method of Random.
+     *
+     * @param bits (int) The number of random bits to generate.
+     * @return (int) The random bits, in the lowest bits of the result.
+     */
+    protected int next(int bits)
+    {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Scramble the bits of a value with the SplitMix64 finaliser.
+     *
+     * @param z (long) The value to scramble.
+     * @return (long) The scrambled value.
+     */
+    static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
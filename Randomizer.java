@@ -1,51 +1,86 @@
-import java.util.Random;
-
-/**
- * Provide control over the randomization of the simulation. By using the shared, fixed-seed 
- * randomizer, repeated runs will perform exactly the same (which helps with testing). Set 
- * 'useShared' to false to get different random behaviour every time.
- * 
- * @author David J. Barnes and Michael Kölling
- * @version 2016.02.29
- */
-public class Randomizer
-{
-    // The default seed for control of randomization.
-    private static final int SEED = 1111;
-    // A shared Random object, if required.
-    private static final Random rand = new Random(SEED);
-    // Determine whether a shared random generator is to be provided.
-    private static final boolean useShared = false;
-
-    /**
-     * Constructor for objects of class Randomizer
-     */
-    public Randomizer()
-    {
-    }
-
-    /**
-     * Provide a random generator.
-     *
-     * @return A random object.
-     */
-    public static Random getRandom()
-    {
-        if(useShared) {
-            return rand;
-        }
-        else {
-            return new Random();
-        }
-    }
-    
-    /**
-     * Reset the randomization. This will have no effect if randomization is not through a shared Random generator.
-     */
-    public static void reset()
-    {
-        if(useShared) {
-            rand.setSeed(SEED);
-        }
-    }
-}
+import java.util.Random;
+
+/**
+ * Provide control over the randomization of the simulation. Every random number is drawn from a
+ * stream keyed by the seed of the simulation, the step and the thing drawing it (an individual,
+ * the habitat, the initialization). Before acting, each of them restarts the stream of the
+ * current thread with its own key, so a given seed always gives the same run, whatever the order
+ * in which threads pick up the work. Set 'useFixedSeed' to true to run every simulation with SEED.
+ *
+ * @author David J. Barnes, Michael Kölling, Ali Alkhars (k20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class Randomizer
+{
+    // The default seed for control of randomization.
+    private static final int SEED = 1111;
+    // Determine whether every simulation uses SEED, or a new seed is picked each time.
+    private static final boolean useFixedSeed = false;
+    // The stream key of the draws made while populating the field.
+    public static final long INITIALIZATION_STREAM = -1;
+    // The stream key of the draws made by the habitat.
+    public static final long HABITAT_STREAM = -2;
+
+    // The stream of each thread.
+    private static final ThreadLocal<RandomStream> streams = ThreadLocal.withInitial(RandomStream::new);
+    // The Random handed to the classes, drawing from the stream of the calling thread.
+    private static final Random rand = new Random()
+    {
+        protected int next(int bits)
+        {
+            return streams.get().next(bits);
+        }
+
+        public long nextLong()
+        {
+            return streams.get().nextLong();
+        }
+    };
+    // Picks the seeds of simulations when useFixedSeed is false.
+    private static final Random seeds = new Random();
+
+    /**
+     * Constructor for objects of class Randomizer
+     */
+    public Randomizer()
+    {
+    }
+
+    /**
+     * Provide a random generator. It is shared by every class and draws from the stream last
+     * started on the calling thread, so it can be kept in a static field.
+     *
+     * @return A random object.
+     */
+    public static Random getRandom()
+    {
+        return rand;
+    }
+
+    /**
+     * @return (long) A seed for a new simulation: SEED if useFixedSeed is true, a random one otherwise.
+     */
+    public static long newSeed()
+    {
+        if(useFixedSeed) {
+            return SEED;
+        }
+        synchronized (seeds) {
+            return seeds.nextLong();
+        }
+    }
+
+    /**
+     * Restart the stream of the calling thread. The numbers drawn afterwards on this thread only
+     * depend on the three given values.
+     *
+     * @param seed (long) The seed of the simulation.
+     * @param step (long) The current step of the simulation.
+     * @param streamId (long) The identifier of what is drawing: an individual's id, HABITAT_STREAM or INITIALIZATION_STREAM.
+     */
+    public static void beginStream(long seed, long step, long streamId)
+    {
+        long key = RandomStream.mix(RandomStream.mix(seed) + step);
+        streams.get().reset(RandomStream.mix(key + streamId));
+    }
+}
@@ -0,0 +1,330 @@
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * An observer writing the state of every step of a simulation to a file: the step number, the
+ * season, the temperature and the number of living individuals of each species. The subclasses
+ * choose the format of the file.
+ *
+ * The simulation thread only copies the values of a step into a chunk of ROWS_PER_CHUNK rows,
+ * stored as one array per column. Full chunks are handed to a background thread which encodes
+ * them and writes them to a FileChannel, then gives them back to be filled again. When the
+ * background thread falls behind, new chunks are created rather than waiting for it, so writing
+ * the series never slows the steps down.
+ *
+ * The rows of a run are handed over when the run ends, and the file is complete once the writer
+ * is closed.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public abstract class SeriesWriter implements SimulationObserver, Closeable
+{
+    // The number of rows of a chunk.
+    private static final int ROWS_PER_CHUNK = 4096;
+    // The seasons of a habitat, a season is written as its index in this array (-1 if unknown).
+    protected static final String[] SEASONS = {"spring", "summer", "autumn", "winter"};
+
+    // The file written.
+    private final FileChannel channel;
+    // The names of the species, in the order they were added.
+    private final List<String> speciesNames;
+    // The chunks full of rows, waiting to be written.
+    private final BlockingQueue<Chunk> filledChunks;
+    // The chunks written, ready to be filled again.
+    private final ConcurrentLinkedQueue<Chunk> freeChunks;
+    // Handed to the background thread to make it stop.
+    private final Chunk endOfSeries;
+    // Encodes and writes the chunks.
+    private final Thread writerThread;
+
+    // The names of the columns of counts, fixed when the first row is added.
+    private String[] columns;
+    // The id of the species of each column in the field, -1 until an individual of the species is born.
+    private int[] columnSpeciesIds;
+    // The chunk being filled on the simulation thread, or null.
+    private Chunk currentChunk;
+    // Whether the header was written, only used by the background thread.
+    private boolean headerWritten;
+    // The first error met while writing, after which nothing more is written.
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Create the file, replacing it if it exists, and start the thread writing it.
+     *
+     * @param path (Path) The file to write.
+     * @throws IOException If the file can not be created.
+     */
+    protected SeriesWriter(Path path) throws IOException
+    {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        speciesNames = new ArrayList<>();
+        filledChunks = new LinkedBlockingQueue<>();
+        freeChunks = new ConcurrentLinkedQueue<>();
+        endOfSeries = new Chunk(0, 0);
+        writerThread = new Thread(this::writeChunks, "Series writer " + path.getFileName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Add a column for the specie, the color is not used.
+     *
+     * @param speciesName (String) The specie's name.
+     * @param color (Color) The color given to the specie.
+     */
+    public void setColor(String speciesName, Color color)
+    {
+        speciesNames.add(speciesName);
+    }
+
+    /**
+     * Add the row of a step to the current chunk, and hand the chunk over if it is full.
+     *
+     * @param step (int) Which iteration step it is.
+     * @param time (String) The current time in the simulation, not written.
+     * @param season (String) The current season in the simulation
+     * @param temperature (int) The current temperature in the simulation
+     * @param field (Field) The field whose counts are written.
+     */
+    public void showStatus(int step, String time, String season, int temperature, Field field)
+    {
+        if (columns == null) {
+            columns = speciesNames.toArray(new String[0]);
+            columnSpeciesIds = new int[columns.length];
+            Arrays.fill(columnSpeciesIds, -1);
+        }
+        if (currentChunk == null) {
+            currentChunk = freeChunks.poll();
+            if (currentChunk == null) {
+                currentChunk = new Chunk(ROWS_PER_CHUNK, columns.length);
+            }
+        }
+
+        Chunk chunk = currentChunk;
+        int row = chunk.rowCount;
+        chunk.steps[row] = step;
+        chunk.seasons[row] = seasonCode(season);
+        chunk.temperatures[row] = temperature;
+        for (int column = 0; column < columns.length; column++) {
+            if (columnSpeciesIds[column] < 0) {
+                columnSpeciesIds[column] = field.getSpeciesId(columns[column]);
+            }
+            int id = columnSpeciesIds[column];
+            chunk.counts[column][row] = (id >= 0) ? field.getPopulation(id) : 0;
+        }
+        chunk.rowCount++;
+        if (chunk.rowCount == ROWS_PER_CHUNK) {
+            handOver();
+        }
+    }
+
+    /**
+     * Hand the rows of the run over to the background thread, without waiting for them to be written.
+     */
+    public void runEnded()
+    {
+        if (currentChunk != null && currentChunk.rowCount > 0) {
+            handOver();
+        }
+    }
+
+    /**
+     * Write the rows left, wait for the background thread to finish and close the file.
+     *
+     * @throws IOException If the series could not be written completely.
+     */
+    public void close() throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        runEnded();
+        filledChunks.add(endOfSeries);
+        try {
+            writerThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Write what comes before the rows.
+     *
+     * @param speciesNames (String[]) The names of the columns of counts.
+     * @throws IOException If the header could not be written.
+     */
+    protected abstract void writeHeader(String[] speciesNames) throws IOException;
+
+    /**
+     * Encode and write the rows of a chunk.
+     *
+     * @param chunk (Chunk) The chunk to write.
+     * @throws IOException If the chunk could not be written.
+     */
+    protected abstract void writeChunk(Chunk chunk) throws IOException;
+
+    /**
+     * Write all the remaining bytes of a buffer to the file.
+     *
+     * @param buffer (ByteBuffer) The bytes to write, between its position and limit.
+     * @throws IOException If the bytes could not be written.
+     */
+    protected void write(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Queue the current chunk for the background thread, the next row starts a new chunk.
+     */
+    private void handOver()
+    {
+        filledChunks.add(currentChunk);
+        currentChunk = null;
+    }
+
+    /**
+     * The loop of the background thread: write the chunks as they come, until the end of the series.
+     */
+    private void writeChunks()
+    {
+        try {
+            while (true) {
+                Chunk chunk = filledChunks.take();
+                if (chunk == endOfSeries) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        if (! headerWritten) {
+                            // The columns were fixed before the first chunk was queued.
+                            writeHeader(columns);
+                            headerWritten = true;
+                        }
+                        writeChunk(chunk);
+                    }
+                    catch (IOException e) {
+                        failure = e;
+                        new ErrorThrower().throwMessage("The series could not be written: " + e.getMessage());
+                    }
+                }
+                chunk.rowCount = 0;
+                freeChunks.add(chunk);
+            }
+        }
+        catch (InterruptedException e) {
+            // Stop writing.
+        }
+    }
+
+    /**
+     * @param season (String) The name of a season.
+     * @return (byte) The index of the season in SEASONS, -1 if it is not there.
+     */
+    private static byte seasonCode(String season)
+    {
+        for (byte code = 0; code < SEASONS.length; code++) {
+            if (SEASONS[code].equals(season)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A block of consecutive rows, stored as one array per column.
+     */
+    protected static class Chunk
+    {
+        // The number of rows filled.
+        private int rowCount;
+        // The columns, indexed by row.
+        private final int[] steps;
+        private final byte[] seasons;
+        private final int[] temperatures;
+        // The counts of each species, indexed by column then by row.
+        private final int[][] counts;
+
+        /**
+         * @param capacity (int) The number of rows the chunk can hold.
+         * @param speciesCount (int) The number of columns of counts.
+         */
+        private Chunk(int capacity, int speciesCount)
+        {
+            steps = new int[capacity];
+            seasons = new byte[capacity];
+            temperatures = new int[capacity];
+            counts = new int[speciesCount][capacity];
+        }
+
+        /**
+         * @return (int) The number of rows in the chunk.
+         */
+        public int getRowCount()
+        {
+            return rowCount;
+        }
+
+        /**
+         * @return (int[]) The step of each row, only the first getRowCount() values are set.
+         */
+        public int[] getSteps()
+        {
+            return steps;
+        }
+
+        /**
+         * @return (byte[]) The index in SEASONS of the season of each row, only the first getRowCount() values are set.
+         */
+        public byte[] getSeasons()
+        {
+            return seasons;
+        }
+
+        /**
+         * @return (int[]) The temperature of each row, only the first getRowCount() values are set.
+         */
+        public int[] getTemperatures()
+        {
+            return temperatures;
+        }
+
+        /**
+         * @param column (int) The column of a species.
+         * @return (int[]) The count of the species in each row, only the first getRowCount() values are set.
+         */
+        public int[] getCounts(int column)
+        {
+            return counts[column];
+        }
+
+        /**
+         * @return (int) The number of columns of counts.
+         */
+        public int getSpeciesCount()
+        {
+            return counts.length;
+        }
+    }
+}
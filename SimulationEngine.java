@@ -0,0 +1,72 @@
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Holds the individuals of a simulation and makes them act at each step. The Simulator takes
+ * care of the habitat and the time, and hands the agents over to an engine so that different
+ * ways of storing and stepping them can be chosen when the simulation is built.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public interface SimulationEngine
+{
+    /**
+     * Create a new individual of the given species and place it in the field.
+     *
+     * @param definition (SpeciesDefinition) The species of the individual.
+     * @param location (Location) The free location where the individual appears.
+     * @param randomAge (boolean) Whether an animal should be created with a random age.
+     */
+    void spawn(SpeciesDefinition definition, Location location, boolean randomAge);
+
+    /**
+     * Make every individual act once. Before acting, an individual starts the random stream
+     * keyed by the seed of the simulation, the step and its own identifier.
+     *
+     * @param step (int) The number of the step being run.
+     * @param isSpring (boolean) If the current season is spring.
+     * @param isNight (boolean) If it is currently night.
+     * @param temperature (int) The current temperature.
+     * @param yearPassed (boolean) If a year is passing on this step.
+     */
+    void step(int step, boolean isSpring, boolean isNight, int temperature, boolean yearPassed);
+
+    /**
+     * @return (int) The number of individuals held by the engine.
+     */
+    int getPopulationSize();
+
+    /**
+     * Time the acts of the individuals, by kind, and the merge of the newborns in the given profiler.
+     *
+     * @param profiler (StepProfiler) The profiler, or null to stop timing.
+     */
+    void setProfiler(StepProfiler profiler);
+
+    /**
+     * @return (List<SpeciesDefinition>) The species of all the individuals ever given to the engine.
+     */
+    List<SpeciesDefinition> getDefinitions();
+
+    /**
+     * Write the record of every individual to a checkpoint, in the order they act (see Checkpoint).
+     *
+     * @param buffer (ByteBuffer) The checkpoint, with room for getPopulationSize() records.
+     */
+    void writeAgents(ByteBuffer buffer);
+
+    /**
+     * Add the individuals read from a checkpoint after the ones already held, in the order of their records.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the first record.
+     * @param count (int) The number of records to read.
+     * @param definitions (SpeciesDefinition[]) The species of the individuals, indexed by species id.
+     */
+    void readAgents(ByteBuffer buffer, int count, SpeciesDefinition[] definitions);
+
+    /**
+     * Remove every individual from the engine.
+     */
+    void clear();
+}
@@ -0,0 +1,35 @@
+import java.awt.Color;
+
+/**
+ * Receives the state of a simulation as it runs. The SimulatorView is the graphical observer,
+ * a simulation running without a display can be given any other observer instead.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public interface SimulationObserver
+{
+    /**
+     * Called once for each species when the field is populated, before the first status.
+     *
+     * @param speciesName (String) The specie's name.
+     * @param color (Color) The color given to the specie.
+     */
+    void setColor(String speciesName, Color color);
+
+    /**
+     * Called when the simulation is built and after every step.
+     *
+     * @param step (int) Which iteration step it is.
+     * @param time (String) The current time in the simulation
+     * @param season (String) The current season in the simulation
+     * @param temperature (int) The current temperature in the simulation
+     * @param field (Field) The field whose status is to be observed.
+     */
+    void showStatus(int step, String time, String season, int temperature, Field field);
+
+    /**
+     * Called when a run of one or more steps ends, the last status received is then the state of the field.
+     */
+    void runEnded();
+}
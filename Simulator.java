@@ -1,7 +1,3 @@
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Iterator;
-
 /**
  * This is the main class of the simulation, as it connects all the other classes
  * and runs the simulation. In general, the classes simulate a habitat in which
@@ -13,33 +9,49 @@ import java.util.Iterator;
 public class Simulator
 {
     private static final int LONG_SIMULATION_STEP_COUNT = 2000;
-    // List of species in the field.
-    private List<Species> species;
+    // The engine holding the species in the field and making them act.
+    private SimulationEngine engine;
     // The current state of the field.
     private Field field;
     // keep track of the simulation steps.
     private SimulationStep simStep;
-    // A graphical view of the simulation.
-    private SimulatorView view;
+    // The observer of the simulation, such as its graphical view.
+    private SimulationObserver view;
+    // Reads the species counts of the field to know if the simulation is viable.
+    private FieldStats stats;
     // keep track of the time in the simulation
     private Time time;
     // the habitat of the simulation
     private Habitat simulationHabitat;
+    // The seed of the simulation: two simulations built alike with the same seed run identically.
+    private final long seed;
+    // Times the phases of each step, or null when the steps are not timed.
+    private StepProfiler profiler;
     private boolean simulationIsOn;
 
     private static final int DEFAULT_DELAY = 0;
 
     /**
      * Construct a simulation field with default size.
+     *
+     * @param simulationHabitat (Habitat) The habitat of the simulation.
+     * @param time (Time) The object keeping track of the time in the simulation.
+     * @param engine (SimulationEngine) The engine holding the species, already populated.
+     * @param field (Field) The field in which the species evolve.
+     * @param simulationStepCounter (SimulationStep) The object keeping track of the simulation steps.
+     * @param simulatorView (SimulationObserver) The observer of the simulation, such as its graphical view.
+     * @param seed (long) The seed of the simulation, also given to the engine.
      */
-    public Simulator(Habitat simulationHabitat, Time time, List<Species> speciesInSimulation, Field field, SimulationStep simulationStepCounter, SimulatorView simulatorView)
+    public Simulator(Habitat simulationHabitat, Time time, SimulationEngine engine, Field field, SimulationStep simulationStepCounter, SimulationObserver simulatorView, long seed)
     {
+        this.seed = seed;
         this.simulationHabitat = simulationHabitat;
         this.time = time;
-        this.species = speciesInSimulation;
+        this.engine = engine;
         this.field = field;
         this.simStep = simulationStepCounter;
         this.view = simulatorView;
+        this.stats = new FieldStats(field);
         this.simulationIsOn = true;
 
         view.showStatus(simStep.getCurrentStep(), time.timeString(), simulationHabitat.getCurrentSeason(), simulationHabitat.getCurrentTemperature(), field);
@@ -67,11 +79,12 @@ public class Simulator
      */
     public void simulate(int numSteps)
     {
-        for(int step = 1; step <= numSteps && view.isViable(field); step++) {
+        for(int step = 1; step <= numSteps && isViable(); step++) {
             delay(DEFAULT_DELAY);
             simulateOneStep();
             // delay(200);   // uncomment this to run more slowly
         }
+        view.runEnded();
     }
 
     /**
@@ -81,9 +94,17 @@ public class Simulator
     public void simulateOneStep()
     {
         if (simulationIsOn) {
+            long stepStart = startLap();
             simStep.incStep();
+            // The observer has seen the changes of the previous step in showStatus.
+            field.resetDirtyBlocks();
+            int step = simStep.getCurrentStep();
+            Randomizer.beginStream(seed, step, Randomizer.HABITAT_STREAM);
+            long lapStart = startLap();
             simulationHabitat.habitatStep();
+            lapStart = endLap(StepProfiler.HABITAT, lapStart);
             time.timeStep();
+            endLap(StepProfiler.TIME, lapStart);
 
             // the following variables are added here to reduce method calls:
             boolean isSpring = simulationHabitat.getIsSpring();
@@ -91,31 +112,97 @@ public class Simulator
             int currentTemperature = simulationHabitat.getCurrentTemperature();
             boolean yearPassed = simulationHabitat.yearPassed();
 
-            // Provide space for newborn species.
-            List<Species> newSpecies = new ArrayList<>();
-            // Let all species act.
-            for(Iterator<Species> it = species.iterator(); it.hasNext(); )
-            {
-                Species specie = it.next();
-                // Update the status of isSpring in the plants (done here to reduce coupling)
-                if (specie instanceof Plant)
-                {
-                    Plant tempPlant = (Plant) specie;
-                    if (tempPlant.getIsSpring() != isSpring) {
-                        tempPlant.toggleIsSpring();
-                    }
-                }
-
-                specie.act(newSpecies, isNight, currentTemperature, yearPassed);
-                if(! specie.isAlive()) {
-                    it.remove();
-                }
-            }
+            // Let all species act, the engine takes care of the newborns and the dead.
+            engine.step(step, isSpring, isNight, currentTemperature, yearPassed);
 
-            // Add the newly born species to the main lists.
-            species.addAll(newSpecies);
+            lapStart = startLap();
             view.showStatus(simStep.getCurrentStep(), time.timeString(), simulationHabitat.getCurrentSeason(), simulationHabitat.getCurrentTemperature(), field);
+            endLap(StepProfiler.VIEW, lapStart);
+            if (profiler != null) {
+                profiler.endStep(System.nanoTime() - stepStart);
+            }
+        }
+    }
+
+    /**
+     * Start timing the phases of each step, from the next step on.
+     *
+     * @return (StepProfiler) The profiler receiving the timings, the same one if profiling was already started.
+     */
+    public StepProfiler startProfiling()
+    {
+        if (profiler == null) {
+            profiler = new StepProfiler(field);
+            engine.setProfiler(profiler);
         }
+        return profiler;
+    }
+
+    /**
+     * Stop timing the steps. The profiler keeps what it measured.
+     */
+    public void stopProfiling()
+    {
+        engine.setProfiler(null);
+        profiler = null;
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     *
+     * @return (boolean) true If there is more than one species alive.
+     */
+    public boolean isViable()
+    {
+        return stats.isViable();
+    }
+
+    /**
+     * @return (int) The number of steps run so far.
+     */
+    public int getCurrentStep()
+    {
+        return simStep.getCurrentStep();
+    }
+
+    /**
+     * @return (long) The seed of the simulation.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * @return (Field) The field of the simulation.
+     */
+    Field getField()
+    {
+        return field;
+    }
+
+    /**
+     * @return (SimulationEngine) The engine holding the individuals of the simulation.
+     */
+    SimulationEngine getEngine()
+    {
+        return engine;
+    }
+
+    /**
+     * @return (Time) The time of the simulation.
+     */
+    Time getTime()
+    {
+        return time;
+    }
+
+    /**
+     * @return (Habitat) The habitat of the simulation.
+     */
+    Habitat getHabitat()
+    {
+        return simulationHabitat;
     }
 
     /**
@@ -124,10 +211,35 @@ public class Simulator
     public void endSimulation()
     {
         simStep.reset();
-        species.clear();
+        engine.clear();
         simulationIsOn = false;
     }
 
+    /**
+     * @return (long) The current time in nanoseconds if the steps are profiled, 0 otherwise.
+     */
+    private long startLap()
+    {
+        return (profiler != null) ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time since the start of a lap in the given phase, if the steps are profiled.
+     *
+     * @param phase (int) The phase of the step that just ended.
+     * @param lapStart (long) The time the phase started, as returned by startLap.
+     * @return (long) The current time, starting the next lap.
+     */
+    private long endLap(int phase, long lapStart)
+    {
+        if (profiler == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        profiler.record(phase, now - lapStart);
+        return now;
+    }
+
     /**
      * Pause for a given time.
      * @param millisec (int) The time to pause for, in milliseconds
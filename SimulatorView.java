@@ -1,6 +1,11 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.awt.event.ActionListener;
 import javax.swing.border.LineBorder;
@@ -12,15 +17,25 @@ import javax.swing.border.LineBorder;
  * Colors for each type of species can be defined using the
  * setColor method.
  *
+ * The simulation does not wait for the view: at most once per frame, the status it reports is
+ * copied into an immutable snapshot by a StatusPublisher, and a Swing timer displays the latest
+ * snapshot on the Swing thread. Statuses arriving between two frames are dropped.
+ *
  * @author David J. Barnes, Michael Kölling, Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
  * @version 2022.02.28
  */
-public class SimulatorView extends JFrame
+public class SimulatorView extends JFrame implements SimulationObserver
 {
     // Color used for empty locations.
     private static final Color EMPTY_COLOR = Color.white;
     // Color used for objects that have no defined color.
     private static final Color UNKNOWN_COLOR = Color.gray;
+    // The ARGB value of empty locations in the image of the field.
+    private static final int EMPTY_ARGB = EMPTY_COLOR.getRGB();
+    // The number of frames displayed per second unless set otherwise.
+    private static final int DEFAULT_FRAMES_PER_SECOND = 30;
+    // The largest width or depth of the image of the field, in pixels. Larger fields show one cell out of several.
+    private static final int MAX_IMAGE_SIZE = 1024;
     // Prefix preceding the step count.
     private final String STEP_PREFIX = "Step: ";
     // Prefix preceding the current time display.
@@ -38,10 +53,15 @@ public class SimulatorView extends JFrame
 
     // A map for storing colors for participants in the simulation
     private Map<String, Color> colors;
-    // A statistics object computing and storing simulation information
-    private FieldStats stats;
     // The GUIHandler governing the simulation's GUI.
     private GUIHandler handler;
+    // The labels showing the count of each species, in the order the species' colors were defined.
+    private List<JLabel> countLabels;
+
+    // Follows the field and publishes its snapshots, on the simulation thread.
+    private final StatusPublisher publisher;
+    // Displays the pending snapshot at each frame.
+    private final Timer renderTimer;
 
     /**
      * Constructor has two roles:
@@ -55,8 +75,12 @@ public class SimulatorView extends JFrame
     {
         // INITIALIZES FIELDS
         this.handler = handler;
-        stats = new FieldStats();
         colors = new LinkedHashMap<>();
+        int cellsPerPixel = Math.max(1, Math.max(FieldColors.imageSize(height, MAX_IMAGE_SIZE), FieldColors.imageSize(width, MAX_IMAGE_SIZE)));
+        FieldColors fieldColors = new FieldColors(colors, EMPTY_COLOR, UNKNOWN_COLOR, cellsPerPixel);
+        countLabels = new ArrayList<>();
+        publisher = new StatusPublisher(colors, fieldColors, 1_000_000_000L / DEFAULT_FRAMES_PER_SECOND);
+        renderTimer = new Timer(1000 / DEFAULT_FRAMES_PER_SECOND, e -> render());
 
         // Various information labels initialization.
         stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
@@ -70,7 +94,7 @@ public class SimulatorView extends JFrame
         GridLayout gridLayout = new GridLayout(5,5);
         population.setLayout(gridLayout);
 
-        fieldView = new FieldView(height, width);
+        fieldView = new FieldView(FieldColors.imageSize(height, cellsPerPixel), FieldColors.imageSize(width, cellsPerPixel));
 
         // BUILDS THE VIEW
         JFrame frame = new JFrame("Ultimate Simulator 3000");
@@ -108,6 +132,8 @@ public class SimulatorView extends JFrame
         
         JButton goBackMenuButton  = new JButton("Run a new simulation");
         ActionListener goBackMenu = e -> {
+            // Stop displaying frames, a late snapshot would show the window again.
+            renderTimer.stop();
             setVisible(false);
             handler.switchToMenuView();
         };
@@ -132,6 +158,8 @@ public class SimulatorView extends JFrame
 
         pack();
         setVisible(true);
+
+        renderTimer.start();
     }
 
     /**
@@ -154,22 +182,21 @@ public class SimulatorView extends JFrame
     }
 
     /**
-     * @return (Color) The color to be used for a given class of specie.
+     * Set the number of frames the view tries to display per second. Statuses arriving faster
+     * than that are dropped, only the latest one is displayed.
+     *
+     * @param framesPerSecond (int) The target number of frames per second.
      */
-    private Color getColor(String speciesName)
+    public void setFramesPerSecond(int framesPerSecond)
     {
-        Color col = colors.get(speciesName);
-        if(col == null) {
-            // no color defined for this class
-            return UNKNOWN_COLOR;
-        }
-        else {
-            return col;
-        }
+        publisher.setFrameInterval(1_000_000_000L / framesPerSecond);
+        renderTimer.setDelay(1000 / framesPerSecond);
     }
 
     /**
-     * Show the current status of the field.
+     * Record the current status of the field. Called on the simulation thread after every step: the
+     * colors of the cells in the blocks the field marked dirty are updated, then, if a frame is due,
+     * the colors are copied into a snapshot handed to the render timer.
      *
      * @param step (int) Which iteration step it is.
      * @param time (String) The current time in the simulation
@@ -179,78 +206,73 @@ public class SimulatorView extends JFrame
      */
     public void showStatus(int step, String time, String season, int temperature, Field field)
     {
+        publisher.showStatus(step, time, season, temperature, field);
+    }
+
+    /**
+     * Make sure the last status of a run is displayed, even if it arrived too early to be published.
+     */
+    public void runEnded()
+    {
+        publisher.runEnded();
+    }
+
+    /**
+     * Display the latest snapshot, if a new one was published since the last frame. Run by the render timer, on the Swing thread.
+     */
+    private void render()
+    {
+        StatusPublisher.Snapshot snapshot = publisher.takeSnapshot();
+        if (snapshot == null) {
+            return;
+        }
         if(!isVisible()) {
             setVisible(true);
         }
 
-        stepLabel.setText(STEP_PREFIX + step);
-        timeLabel.setText(TIME_PREFIX + time);
-        seasonLabel.setText(SEASON_PREFIX + season);
-        temperatureLabel.setText(TEMPERATURE_PREFIX + temperature + " C");
-        stats.reset();
-
-        fieldView.preparePaint();
+        stepLabel.setText(STEP_PREFIX + snapshot.step);
+        timeLabel.setText(TIME_PREFIX + snapshot.time);
+        seasonLabel.setText(SEASON_PREFIX + snapshot.season);
+        temperatureLabel.setText(TEMPERATURE_PREFIX + snapshot.temperature + " C");
 
-        for(int row = 0; row < field.getDepth(); row++)
-        {
-            for(int col = 0; col < field.getWidth(); col++)
-            {
-                Object specie = field.getObjectAt(row, col);
-                if(specie != null) {
-                    Species speciesObjects = (Species) specie;
-                    stats.incrementCount(speciesObjects.getName());
-                    fieldView.drawMark(col, row, getColor(speciesObjects.getName()));
-                }
-                else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
-                }
-            }
-        }
-        stats.countFinished();
-        
-        fieldView.repaint();
-        generatePopulationComponent(field);
+        fieldView.update(snapshot.cellColors, snapshot.dirtyBlocks);
+        updatePopulationComponent(snapshot.counts);
     }
-    
+
     /**
-     * Generates a population component with the color, count, and name of each species present in the simulation.
+     * Update the population component with the count of each species present in the simulation. The component
+     * holding the color, name and count of each species is built on the first call, later calls only change the counts.
      * The technique to generate small square of a given color was found on https://zetcode.com/javaswing/basicswingcomponentsII/
      *
-     * @param field (Field) The field whose population status has to be displayed.
+     * @param counts (int[]) The count of each species, in the order the species' colors were defined.
      */
-    private void generatePopulationComponent(Field field)
+    private void updatePopulationComponent(int[] counts)
     {
-        population.removeAll();
-        stats.checkCountIsValid(field);
+        if (countLabels.isEmpty()) {
+            for (String speciesName : colors.keySet()) {
+                Box speciesDetails = Box.createHorizontalBox();
+                JPanel colorDisplay = new JPanel();
+                colorDisplay.setMaximumSize(new Dimension(10, 10));
+                colorDisplay.setBorder(LineBorder.createGrayLineBorder());
+                colorDisplay.setBackground(colors.get(speciesName));
+                JLabel nameAndCount = new JLabel();
+                speciesDetails.add(colorDisplay);
+                speciesDetails.add(nameAndCount);
+
+                population.add(speciesDetails);
+                countLabels.add(nameAndCount);
+            }
+            population.revalidate();
+        }
+        int i = 0;
         for (String speciesName : colors.keySet()) {
-            int count = stats.getCount(speciesName);
-            
-            Box speciesDetails = Box.createHorizontalBox();
-            population.add(speciesDetails);
-            JPanel colorDisplay = new JPanel();
-            colorDisplay.setMaximumSize(new Dimension(10, 10));
-            colorDisplay.setBorder(LineBorder.createGrayLineBorder());
-            colorDisplay.setBackground(colors.get(speciesName));
             // The pre-leading space should be improved as it is just a way to add a
             // natural looking padding between the colored square and text.
-            JLabel nameAndCount = new JLabel(" " + speciesName + ": " + count);
-            speciesDetails.add(colorDisplay);
-            speciesDetails.add(nameAndCount);
-
-            population.add(speciesDetails);
+            countLabels.get(i).setText(" " + speciesName + ": " + counts[i]);
+            i++;
         }
     }
 
-    /**
-     * Determine whether the simulation should continue to run.
-     *
-     * @return (boolean) true If there is more than one species alive.
-     */
-    public boolean isViable(Field field)
-    {
-        return stats.isViable(field);
-    }
-
     /**
      * Provide a graphical view of a rectangular field. This is a nested class (a class defined inside a class) which defines a
      * custom component for the user interface. This component displays the field.
@@ -259,21 +281,28 @@ public class SimulatorView extends JFrame
     class FieldView extends JPanel
     {
         private final int GRID_VIEW_SCALING_FACTOR = 6;
+        // The largest preferred width or height of the view, reached by the default grid.
+        private final int MAX_PREFERRED_SIZE = 720;
 
         private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        // The image of the field, one pixel per location (or per square of locations for large fields), scaled to the size of the component when painted.
+        private BufferedImage fieldImage;
+        // The pixels of the image, written directly.
+        private int[] pixels;
 
         /**
          * Create a new FieldView component.
+         *
+         * @param height (int) The height of the image of the field, in pixels.
+         * @param width (int) The width of the image of the field, in pixels.
          */
         public FieldView(int height, int width)
         {
             gridHeight = height;
             gridWidth = width;
-            size = new Dimension(0, 0);
+            fieldImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) fieldImage.getRaster().getDataBuffer()).getData();
+            Arrays.fill(pixels, EMPTY_ARGB);
         }
 
         /**
@@ -281,55 +310,35 @@ public class SimulatorView extends JFrame
          */
         public Dimension getPreferredSize()
         {
-            return new Dimension(gridWidth * GRID_VIEW_SCALING_FACTOR,
-                    gridHeight * GRID_VIEW_SCALING_FACTOR);
+            int scale = Math.max(1, Math.min(GRID_VIEW_SCALING_FACTOR, MAX_PREFERRED_SIZE / Math.max(gridWidth, gridHeight)));
+            return new Dimension(gridWidth * scale, gridHeight * scale);
         }
 
         /**
-         * Prepare for a new round of painting. Since the component may be resized, compute the scaling factor again.
+         * Copy the blocks of locations that changed into the image, then ask for the component to be repainted.
+         *
+         * @param cellColors (int[]) The ARGB color of each pixel, row by row.
+         * @param dirtyBlocks (byte[]) The blocks of Field.DIRTY_BLOCK_SIZE pixels that changed since the last update.
          */
-        public void preparePaint()
+        public void update(int[] cellColors, byte[] dirtyBlocks)
         {
-            if(! size.equals(getSize())) {  // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if(xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
-                }
-                yScale = size.height / gridHeight;
-                if(yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
+            for(int block = 0; block < dirtyBlocks.length; block++) {
+                if(dirtyBlocks[block] != 0) {
+                    int start = block * Field.DIRTY_BLOCK_SIZE;
+                    int length = Math.min(Field.DIRTY_BLOCK_SIZE, cellColors.length - start);
+                    System.arraycopy(cellColors, start, pixels, start, length);
                 }
             }
+            repaint();
         }
 
         /**
-         * Paint on grid location on this field in a given color.
-         */
-        public void drawMark(int x, int y, Color color)
-        {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
-        }
-
-        /**
-         * The field view component needs to be redisplayed. Copy the internal image to screen.
+         * The field view component needs to be redisplayed. Scale the image of the field to the component.
          */
         public void paintComponent(Graphics g)
         {
-            if(fieldImage != null) {
-                Dimension currentSize = getSize();
-                if(size.equals(currentSize)) {
-                    g.drawImage(fieldImage, 0, 0, null);
-                }
-                else {
-                    // Rescale the previous image.
-                    g.drawImage(fieldImage, 0, 0, currentSize.width, currentSize.height, null);
-                }
-            }
+            super.paintComponent(g);
+            g.drawImage(fieldImage, 0, 0, getWidth(), getHeight(), null);
         }
     }
-}
\ No newline at end of file
+}
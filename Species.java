@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Random;
 
@@ -9,7 +10,7 @@ import java.util.Random;
  * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741). (contains some code by David J. Barnes and Michael Kölling)
  * @version 2022.02.28
  */
-public abstract class Species
+public abstract class Species implements Occupant
 {
     // The probability for an individual to die if exposed to too high or too cold temperatures. Can be adjusted for simulation realism purposes.
     private static final double DYING_OF_COLD_OR_HEAT_PROBABILITY = 0.8;
@@ -19,40 +20,53 @@ public abstract class Species
     private Field field;
     // The species' position in the field.
     private Location location;
-    // The species' name
-    private final String name;
-    // The maximum temperature at which the species can survive
-    private final int maximumTemperature;
-    // The minimum temperature at which the species can survive
-    private final int minimumTemperature;
-    // The food value animal provides when eaten
-    private final int nutritionalValue;
-    // The likelihood of a specie to reproduce.
-    private final double reproductionProbability;
+    // The characteristics shared by all individuals of the species (name, temperatures, nutritional value...).
+    private final SpeciesDefinition definition;
+    // The identifier of the individual, keying the random numbers it draws.
+    private final long id;
     // A random number generator
     protected static final Random rand = Randomizer.getRandom();
 
     /**
      * Create a new specie at location in field.
      *
+     * @param definition (SpeciesDefinition) The characteristics of the specie, shared with the other individuals of the specie.
      * @param field (Field) The field currently occupied.
      * @param location (Location) The location within the field.
-     * @param name (String) The name of the specie
-     * @param maximumTemperature (int) The maximum temperature that the specie can withstand
-     * @param minimumTemperature (int) The minimum temperature that the specie can withstand
-     * @param nutritionalValue (int) The nutritional value given to the specie that eats this specie
-     * @param reproductionProbability (double) The probability that this specie will reproduce
      */
-    public Species(Field field, Location location, String name, int maximumTemperature, int minimumTemperature, int nutritionalValue, double reproductionProbability)
+    public Species(SpeciesDefinition definition, Field field, Location location)
     {
         alive = true;
+        this.definition = definition;
         this.field = field;
+        // Drawn from the stream of whoever creates the specie, so it is the same on every run with the same seed.
+        id = rand.nextLong();
         setLocation(location);
-        this.name = name;
-        this.maximumTemperature = maximumTemperature;
-        this.minimumTemperature = minimumTemperature;
-        this.nutritionalValue = nutritionalValue;
-        this.reproductionProbability = reproductionProbability;
+        field.countBirth(this);
+    }
+
+    /**
+     * Recreate an individual saved in a checkpoint, with its identifier.
+     *
+     * @param definition (SpeciesDefinition) The characteristics of the specie, shared with the other individuals of the specie.
+     * @param field (Field) The field of the individual.
+     * @param location (Location) The location of the individual within the field.
+     * @param id (long) The identifier of the individual.
+     * @param placed (boolean) Whether the individual is in the field, false for plants that died back.
+     */
+    protected Species(SpeciesDefinition definition, Field field, Location location, long id, boolean placed)
+    {
+        alive = true;
+        this.definition = definition;
+        this.field = field;
+        this.id = id;
+        if (placed) {
+            setLocation(location);
+        }
+        else {
+            this.location = location;
+        }
+        field.countBirth(this);
     }
 
     /**
@@ -71,6 +85,18 @@ public abstract class Species
      */
     abstract void reproduce(List<Species> newOfThisKind);
 
+    /**
+     * @return (byte) The kind of the specie, one of Field.PLANT, Field.PREY or Field.PREDATOR.
+     */
+    abstract public byte getKind();
+
+    /**
+     * Write the record of the individual to a checkpoint, see Checkpoint.putAgent.
+     *
+     * @param buffer (ByteBuffer) The checkpoint.
+     */
+    abstract void writeState(ByteBuffer buffer);
+
     /**
      * Check whether the animal is alive or not.
      *
@@ -83,9 +109,14 @@ public abstract class Species
 
     /**
      * Indicate that the animal is no longer alive. It is removed from the field.
+     *
+     * @param cause (DeathCause) Why the animal died, counted by the field.
      */
-    protected void setDead()
+    protected void setDead(DeathCause cause)
     {
+        if(alive && field != null) {
+            field.countDeath(getSpeciesId(), cause);
+        }
         alive = false;
         if(location != null) {
             field.clear(location);
@@ -118,6 +149,14 @@ public abstract class Species
         field.place(this, newLocation);
     }
 
+    /**
+     * @return (int) The index of the animal's cell in its field.
+     */
+    protected int getCellIndex()
+    {
+        return field.getCellIndex(location.getRow(), location.getCol());
+    }
+
     /**
      * @return (Field) The animal's field.
      */
@@ -134,18 +173,42 @@ public abstract class Species
      */
     protected boolean survivesTemperature(int temperature)
     {
-        if (temperature > maximumTemperature || temperature < minimumTemperature) {
-            return Math.random() <= DYING_OF_COLD_OR_HEAT_PROBABILITY;
+        if (temperature > definition.getMaximumTemperature() || temperature < definition.getMinimumTemperature()) {
+            return rand.nextDouble() <= DYING_OF_COLD_OR_HEAT_PROBABILITY;
         }
         return true;
     }
 
+    /**
+     * @return (SpeciesDefinition) The characteristics shared by all individuals of the specie.
+     */
+    public SpeciesDefinition getDefinition()
+    {
+        return definition;
+    }
+
+    /**
+     * @return (int) The identifier of the specie, equal for all individuals of the same specie.
+     */
+    public int getSpeciesId()
+    {
+        return definition.getId();
+    }
+
+    /**
+     * @return (long) The identifier of this individual, keying the random numbers it draws.
+     */
+    public long getIndividualId()
+    {
+        return id;
+    }
+
     /**
      * @return (String) The specie's name.
      */
-    protected String getName()
+    public String getName()
     {
-        return name;
+        return definition.getName();
     }
 
     /**
@@ -153,7 +216,7 @@ public abstract class Species
      */
     protected int getMaximumTemperature()
     {
-        return maximumTemperature;
+        return definition.getMaximumTemperature();
     }
 
     /**
@@ -161,7 +224,7 @@ public abstract class Species
      */
     protected int getMinimumTemperature()
     {
-        return minimumTemperature;
+        return definition.getMinimumTemperature();
     }
 
     /**
@@ -169,7 +232,7 @@ public abstract class Species
      */
     protected int getNutritionalValue()
     {
-        return nutritionalValue;
+        return definition.getNutritionalValue();
     }
 
     /**
@@ -177,7 +240,7 @@ public abstract class Species
      */
     protected double getReproductionProbability()
     {
-        return reproductionProbability;
+        return definition.getReproductionProbability();
     }
 
 }
@@ -0,0 +1,223 @@
+/**
+ * The characteristics shared by every individual of a species, read once from the .csv files.
+ * Definitions are immutable, so a single one can be shared by all the individuals of a species
+ * instead of each of them keeping its own copy of these values.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public final class SpeciesDefinition implements Occupant
+{
+    // A small number identifying the species within a simulation.
+    private final int id;
+    // The species' name.
+    private final String name;
+    // One of Field.PLANT, Field.PREY or Field.PREDATOR.
+    private final byte kind;
+    // The maximum temperature at which the species can survive.
+    private final int maximumTemperature;
+    // The minimum temperature at which the species can survive.
+    private final int minimumTemperature;
+    // The food value an individual provides when eaten.
+    private final int nutritionalValue;
+    // The likelihood of an individual to reproduce.
+    private final double reproductionProbability;
+    // The age to which an animal can live (0 for plants).
+    private final int maxAge;
+    // The age at which an animal can start to breed (0 for plants).
+    private final int breedingAge;
+    // The maximum number of births at once (0 for plants).
+    private final int maxLitterSize;
+    // Whether the animal hibernates during cold temperatures.
+    private final boolean hibernates;
+    // Whether the animal is active at night.
+    private final boolean isNocturnal;
+    // The predator's strength (0 for preys and plants).
+    private final int strength;
+    // The plant's maximum health when it is created (0 for animals).
+    private final int maxHealth;
+
+    /**
+     * Create the definition of an animal species.
+     *
+     * @param id (int) The species' identifier.
+     * @param name (String) The species' name.
+     * @param isPredator (boolean) Whether the animals are predators.
+     * @param maximumTemperature (int) The maximum temperature the animals can survive to.
+     * @param minimumTemperature (int) The minimum temperature the animals can survive to.
+     * @param nutritionalValue (int) The animals' nutritional value.
+     * @param reproductionProbability (double) The probability that an animal reproduces at each step.
+     * @param maxAge (int) The animals' life expectancy.
+     * @param breedingAge (int) The age at which animals can start to reproduce.
+     * @param maxLitterSize (int) The maximum number of children in one reproduction.
+     * @param hibernates (boolean) Whether the animals are able to hibernate.
+     * @param isNocturnal (boolean) Whether the animals are more active at night.
+     * @param strength (int) The predators' strength (0 if not a predator).
+     */
+    public SpeciesDefinition(int id, String name, boolean isPredator, int maximumTemperature, int minimumTemperature, int nutritionalValue, double reproductionProbability, int maxAge, int breedingAge, int maxLitterSize, boolean hibernates, boolean isNocturnal, int strength)
+    {
+        this.id = id;
+        this.name = name;
+        this.kind = isPredator ? Field.PREDATOR : Field.PREY;
+        this.maximumTemperature = maximumTemperature;
+        this.minimumTemperature = minimumTemperature;
+        this.nutritionalValue = nutritionalValue;
+        this.reproductionProbability = reproductionProbability;
+        this.maxAge = maxAge;
+        this.breedingAge = breedingAge;
+        this.maxLitterSize = maxLitterSize;
+        this.hibernates = hibernates;
+        this.isNocturnal = isNocturnal;
+        this.strength = strength;
+        this.maxHealth = 0;
+    }
+
+    /**
+     * Create the definition of a plant species.
+     *
+     * @param id (int) The species' identifier.
+     * @param name (String) The species' name.
+     * @param maximumTemperature (int) The maximum temperature the plants can survive to.
+     * @param minimumTemperature (int) The minimum temperature the plants can survive to.
+     * @param nutritionalValue (int) The plants' nutritional value.
+     * @param reproductionProbability (double) The probability that a plant reproduces at each step.
+     * @param maxHealth (int) The plants' maximum health.
+     */
+    public SpeciesDefinition(int id, String name, int maximumTemperature, int minimumTemperature, int nutritionalValue, double reproductionProbability, int maxHealth)
+    {
+        this.id = id;
+        this.name = name;
+        this.kind = Field.PLANT;
+        this.maximumTemperature = maximumTemperature;
+        this.minimumTemperature = minimumTemperature;
+        this.nutritionalValue = nutritionalValue;
+        this.reproductionProbability = reproductionProbability;
+        this.maxAge = 0;
+        this.breedingAge = 0;
+        this.maxLitterSize = 0;
+        this.hibernates = false;
+        this.isNocturnal = false;
+        this.strength = 0;
+        this.maxHealth = maxHealth;
+    }
+
+    /**
+     * @return (int) The species' identifier.
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * @return (int) The identifier of the species, as the occupant of the cells marked with this definition.
+     */
+    public int getSpeciesId()
+    {
+        return id;
+    }
+
+    /**
+     * @return (String) The species' name.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return (byte) One of Field.PLANT, Field.PREY or Field.PREDATOR.
+     */
+    public byte getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * @return (int) The maximum temperature the species can survive to.
+     */
+    public int getMaximumTemperature()
+    {
+        return maximumTemperature;
+    }
+
+    /**
+     * @return (int) The minimum temperature the species can survive to.
+     */
+    public int getMinimumTemperature()
+    {
+        return minimumTemperature;
+    }
+
+    /**
+     * @return (int) The species' nutritional value.
+     */
+    public int getNutritionalValue()
+    {
+        return nutritionalValue;
+    }
+
+    /**
+     * @return (double) The species' reproduction probability.
+     */
+    public double getReproductionProbability()
+    {
+        return reproductionProbability;
+    }
+
+    /**
+     * @return (int) The maximum age to which an animal can live.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @return (int) The age at which an animal can start to breed.
+     */
+    public int getBreedingAge()
+    {
+        return breedingAge;
+    }
+
+    /**
+     * @return (int) The maximum number of births at once.
+     */
+    public int getMaxLitterSize()
+    {
+        return maxLitterSize;
+    }
+
+    /**
+     * @return (boolean) true if the animals hibernate.
+     */
+    public boolean getHibernates()
+    {
+        return hibernates;
+    }
+
+    /**
+     * @return (boolean) true if the animals are active at night.
+     */
+    public boolean getIsNocturnal()
+    {
+        return isNocturnal;
+    }
+
+    /**
+     * @return (int) The predators' strength.
+     */
+    public int getStrength()
+    {
+        return strength;
+    }
+
+    /**
+     * @return (int) The plants' maximum health.
+     */
+    public int getMaxHealth()
+    {
+        return maxHealth;
+    }
+}
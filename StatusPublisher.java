@@ -0,0 +1,185 @@
+import java.awt.Color;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The part of a SimulatorView run on the simulation thread. After every step, the colors of the
+ * cells in the blocks the field marked dirty are updated, then, if a frame is due, the status is
+ * copied into a snapshot waiting to be displayed. The view takes the snapshots on the Swing
+ * thread, so the simulation never waits for the display.
+ *
+ * Nothing here needs a display, so the work the view adds to each step can be measured without one.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class StatusPublisher
+{
+    // The colors of the species, by name, in the order they were defined.
+    private final Map<String, Color> colors;
+    // The colors of the field's cells, updated at each status (simulation thread only).
+    private final FieldColors fieldColors;
+    // The latest snapshot not displayed yet, or null.
+    private final AtomicReference<Snapshot> pendingSnapshot;
+    // The minimum time between two published snapshots, in nanoseconds.
+    private volatile long frameInterval;
+    // When the last snapshot was published (simulation thread only).
+    private long lastPublishTime;
+    // The last status received, and whether it was published (simulation thread only).
+    private boolean unpublishedStatus;
+    private int lastStep;
+    private String lastTime;
+    private String lastSeason;
+    private int lastTemperature;
+    private Field lastField;
+
+    /**
+     * Create a publisher with no snapshot waiting, whose first status is published at once.
+     *
+     * @param colors (Map<String, Color>) The colors of the species, by name, also used by fieldColors.
+     * @param fieldColors (FieldColors) The colors of the cells of the field.
+     * @param frameInterval (long) The minimum time between two published snapshots, in nanoseconds.
+     */
+    public StatusPublisher(Map<String, Color> colors, FieldColors fieldColors, long frameInterval)
+    {
+        this.colors = colors;
+        this.fieldColors = fieldColors;
+        this.frameInterval = frameInterval;
+        pendingSnapshot = new AtomicReference<>();
+        lastPublishTime = System.nanoTime() - frameInterval;
+    }
+
+    /**
+     * Set the minimum time between two published snapshots. Statuses arriving faster than that are
+     * not published, the next published snapshot shows their changes too.
+     *
+     * @param frameInterval (long) The time in nanoseconds.
+     */
+    public void setFrameInterval(long frameInterval)
+    {
+        this.frameInterval = frameInterval;
+    }
+
+    /**
+     * Record the current status of the field, and publish it if a frame is due.
+     *
+     * @param step (int) Which iteration step it is.
+     * @param time (String) The current time in the simulation
+     * @param season (String) The current season in the simulation
+     * @param temperature (int) The current temperature in the simulation
+     * @param field (Field) The field whose status is to be displayed.
+     */
+    public void showStatus(int step, String time, String season, int temperature, Field field)
+    {
+        fieldColors.followChanges(field);
+        lastStep = step;
+        lastTime = time;
+        lastSeason = season;
+        lastTemperature = temperature;
+        lastField = field;
+        unpublishedStatus = true;
+
+        long now = System.nanoTime();
+        if (now - lastPublishTime >= frameInterval) {
+            lastPublishTime = now;
+            publish();
+        }
+    }
+
+    /**
+     * Make sure the last status of a run is published, even if it arrived too early to be.
+     */
+    public void runEnded()
+    {
+        if (unpublishedStatus) {
+            lastPublishTime = System.nanoTime();
+            publish();
+        }
+    }
+
+    /**
+     * Take the latest snapshot published since the last call, for display. May be called from any thread.
+     *
+     * @return (Snapshot) The snapshot, or null if none was published since the last call.
+     */
+    public Snapshot takeSnapshot()
+    {
+        return pendingSnapshot.getAndSet(null);
+    }
+
+    /**
+     * Copy the last status into a snapshot and make it the next one to be displayed. If the previous snapshot
+     * was not taken yet, the new one replaces it and takes over its dirty blocks.
+     */
+    private void publish()
+    {
+        // The field counts the individuals as they are born and die, including the plants waiting to regrow.
+        FieldStats stats = new FieldStats(lastField);
+        int[] counts = new int[colors.size()];
+        int i = 0;
+        for (String speciesName : colors.keySet()) {
+            counts[i++] = stats.getCount(speciesName);
+        }
+        Snapshot fresh = new Snapshot(lastStep, lastTime, lastSeason, lastTemperature, fieldColors.copyColors(), fieldColors.takeChangedBlocks(), counts);
+        unpublishedStatus = false;
+
+        Snapshot previous;
+        Snapshot snapshot;
+        do {
+            previous = pendingSnapshot.get();
+            snapshot = (previous == null) ? fresh : fresh.takeOverDirtyBlocks(previous);
+        } while (!pendingSnapshot.compareAndSet(previous, snapshot));
+    }
+
+    /**
+     * The status of the simulation at one step, copied so that it can be displayed while the simulation goes on.
+     */
+    public static final class Snapshot
+    {
+        final int step;
+        final String time;
+        final String season;
+        final int temperature;
+        // The ARGB color of each pixel of the image of the field.
+        final int[] cellColors;
+        // The blocks of pixels that changed since the last displayed snapshot.
+        final byte[] dirtyBlocks;
+        // The count of each species, in the order the species' colors were defined.
+        final int[] counts;
+
+        /**
+         * @param step (int) Which iteration step it is.
+         * @param time (String) The current time in the simulation
+         * @param season (String) The current season in the simulation
+         * @param temperature (int) The current temperature in the simulation
+         * @param cellColors (int[]) The ARGB color of each pixel, the array is not copied.
+         * @param dirtyBlocks (byte[]) The blocks of pixels that changed since the previous snapshot, the array is not copied.
+         * @param counts (int[]) The count of each species, the array is not copied.
+         */
+        Snapshot(int step, String time, String season, int temperature, int[] cellColors, byte[] dirtyBlocks, int[] counts)
+        {
+            this.step = step;
+            this.time = time;
+            this.season = season;
+            this.temperature = temperature;
+            this.cellColors = cellColors;
+            this.dirtyBlocks = dirtyBlocks;
+            this.counts = counts;
+        }
+
+        /**
+         * Create a snapshot of this status, whose dirty blocks also include those of an older snapshot that was never displayed.
+         *
+         * @param older (Snapshot) The snapshot being replaced.
+         * @return (Snapshot) The snapshot to display instead of both.
+         */
+        Snapshot takeOverDirtyBlocks(Snapshot older)
+        {
+            byte[] merged = dirtyBlocks.clone();
+            for (int block = 0; block < merged.length; block++) {
+                merged[block] |= older.dirtyBlocks[block];
+            }
+            return new Snapshot(step, time, season, temperature, cellColors, merged, counts);
+        }
+    }
+}
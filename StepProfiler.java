@@ -0,0 +1,416 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Measures where the time of a simulation's steps goes. The Simulator times the habitat step,
+ * the time step and the update of the view, and its engine times the act of each individual,
+ * by kind of specie, and the merge of the newborns with the survivors. The profiler also counts
+ * the births and deaths of each step, the deaths by cause, and keeps the durations of the last HISTOGRAM_WINDOW
+ * steps to give their distribution.
+ *
+ * Acts may be timed on several threads at once, so with the ParallelEngine the act phases add
+ * up the time of every thread and can exceed the duration of the step. Timing every act costs
+ * two calls to System.nanoTime per individual, which is why profiling is off unless started
+ * with Simulator.startProfiling.
+ *
+ * The profiler can be registered as an MXBean, to be read from jconsole or any JMX client
+ * while the simulation runs.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class StepProfiler implements StepProfilerMXBean
+{
+    // The phases of a step.
+    public static final int HABITAT = 0;
+    public static final int TIME = 1;
+    public static final int ACT_PLANT = 2;
+    public static final int ACT_PREY = 3;
+    public static final int ACT_PREDATOR = 4;
+    public static final int MERGE = 5;
+    public static final int VIEW = 6;
+    // The names of the phases, indexed by phase.
+    private static final String[] PHASE_NAMES = {"habitat", "time", "act plant", "act prey", "act predator", "newborn merge", "view"};
+    // The number of recent steps whose durations are kept.
+    private static final int HISTOGRAM_WINDOW = 1024;
+    // One bucket of the histogram per power of two of nanoseconds.
+    private static final int BUCKET_COUNT = 64;
+    // The domain of the profilers' names in the MBean server.
+    private static final String DOMAIN = "simulation";
+
+    // The field of the profiled simulation, counting its births and deaths.
+    private final Field field;
+    // The time spent in each phase, written from any thread.
+    private final LongAdder[] phaseNanos;
+    // The number of times each phase was run, written from any thread.
+    private final LongAdder[] phaseCounts;
+    // The time spent in each phase up to the end of the previous step.
+    private final long[] previousPhaseNanos;
+    // The field's births and deaths at the end of the previous step.
+    private long previousBirths;
+    private long previousDeaths;
+    // The deaths of each step by species and cause.
+    private final DeathStats deathStats;
+
+    // What is read by the MXBean, updated at the end of each step.
+    private volatile long stepCount;
+    private volatile long lastStepNanos;
+    private volatile long[] lastStepPhaseNanos;
+    private volatile long lastStepBirths;
+    private volatile long lastStepDeaths;
+    private volatile long totalBirths;
+    private volatile long totalDeaths;
+    private volatile long[] lastStepDeathsByCause;
+    private final long[] totalDeathsByCause;
+
+    // The durations of the recent steps, as a ring, and how many of them are in the ring.
+    private final long[] recentStepNanos;
+    private int recentCount;
+    // For the steps in the ring, the number of steps in each bucket.
+    private final long[] histogram;
+
+    // The name under which the profiler is registered, or null.
+    private ObjectName registeredName;
+
+    /**
+     * Create a profiler counting the births and deaths of the given field from now on.
+     *
+     * @param field (Field) The field of the profiled simulation.
+     */
+    public StepProfiler(Field field)
+    {
+        this.field = field;
+        phaseNanos = new LongAdder[PHASE_NAMES.length];
+        phaseCounts = new LongAdder[PHASE_NAMES.length];
+        for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+            phaseNanos[phase] = new LongAdder();
+            phaseCounts[phase] = new LongAdder();
+        }
+        previousPhaseNanos = new long[PHASE_NAMES.length];
+        lastStepPhaseNanos = new long[PHASE_NAMES.length];
+        previousBirths = field.getTotalBirths();
+        previousDeaths = field.getTotalDeaths();
+        deathStats = new DeathStats(field);
+        lastStepDeathsByCause = new long[DeathCause.COUNT];
+        totalDeathsByCause = new long[DeathCause.COUNT];
+        recentStepNanos = new long[HISTOGRAM_WINDOW];
+        histogram = new long[BUCKET_COUNT];
+    }
+
+    /**
+     * @param kind (byte) The kind of a specie, one of Field.PLANT, Field.PREY or Field.PREDATOR.
+     * @return (int) The phase in which the acts of that kind are counted.
+     */
+    public static int actPhase(byte kind)
+    {
+        return ACT_PLANT + kind - Field.PLANT;
+    }
+
+    /**
+     * Add the duration of one run of a phase. Can be called from any thread.
+     *
+     * @param phase (int) The phase.
+     * @param nanos (long) The duration, in nanoseconds.
+     */
+    public void record(int phase, long nanos)
+    {
+        phaseNanos[phase].add(nanos);
+        phaseCounts[phase].increment();
+    }
+
+    /**
+     * Close the current step: work out what happened during it and add its duration to the recent ones.
+     * Called by the simulation thread once the step is over.
+     *
+     * @param stepNanos (long) The duration of the step, in nanoseconds.
+     */
+    public synchronized void endStep(long stepNanos)
+    {
+        long[] stepPhaseNanos = new long[PHASE_NAMES.length];
+        for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+            long total = phaseNanos[phase].sum();
+            stepPhaseNanos[phase] = total - previousPhaseNanos[phase];
+            previousPhaseNanos[phase] = total;
+        }
+        long births = field.getTotalBirths();
+        long deaths = field.getTotalDeaths();
+        lastStepBirths = births - previousBirths;
+        lastStepDeaths = deaths - previousDeaths;
+        previousBirths = births;
+        previousDeaths = deaths;
+        totalBirths += lastStepBirths;
+        totalDeaths += lastStepDeaths;
+        deathStats.endStep();
+        long[] stepDeathsByCause = new long[DeathCause.COUNT];
+        for (DeathCause cause : DeathCause.values()) {
+            stepDeathsByCause[cause.ordinal()] = deathStats.getStepDeaths(cause);
+            totalDeathsByCause[cause.ordinal()] += stepDeathsByCause[cause.ordinal()];
+        }
+        lastStepDeathsByCause = stepDeathsByCause;
+        lastStepPhaseNanos = stepPhaseNanos;
+        lastStepNanos = stepNanos;
+
+        // The step replaces the oldest one in the ring once it is full.
+        int slot = (int) (stepCount % HISTOGRAM_WINDOW);
+        if (recentCount == HISTOGRAM_WINDOW) {
+            histogram[bucketOf(recentStepNanos[slot])]--;
+        }
+        else {
+            recentCount++;
+        }
+        recentStepNanos[slot] = stepNanos;
+        histogram[bucketOf(stepNanos)]++;
+        stepCount++;
+    }
+
+    /**
+     * @return (long) The number of steps profiled since the last reset.
+     */
+    public long getStepCount()
+    {
+        return stepCount;
+    }
+
+    /**
+     * @return (long) The duration of the last step, in nanoseconds.
+     */
+    public long getLastStepNanos()
+    {
+        return lastStepNanos;
+    }
+
+    /**
+     * @return (String[]) The names of the phases, in the order of the other arrays.
+     */
+    public String[] getPhaseNames()
+    {
+        return PHASE_NAMES.clone();
+    }
+
+    /**
+     * @return (long[]) The time spent in each phase since the last reset, in nanoseconds.
+     */
+    public long[] getPhaseTotalNanos()
+    {
+        return sums(phaseNanos);
+    }
+
+    /**
+     * @return (long[]) The number of times each phase was run since the last reset (acts for the act phases).
+     */
+    public long[] getPhaseCounts()
+    {
+        return sums(phaseCounts);
+    }
+
+    /**
+     * @return (long[]) The time spent in each phase during the last step, in nanoseconds.
+     */
+    public long[] getLastStepPhaseNanos()
+    {
+        return lastStepPhaseNanos.clone();
+    }
+
+    /**
+     * @return (long) The number of individuals born during the last step.
+     */
+    public long getLastStepBirths()
+    {
+        return lastStepBirths;
+    }
+
+    /**
+     * @return (long) The number of individuals dead during the last step.
+     */
+    public long getLastStepDeaths()
+    {
+        return lastStepDeaths;
+    }
+
+    /**
+     * @return (String[]) The names of the causes of death, in the order of the arrays of deaths by cause.
+     */
+    public String[] getDeathCauseNames()
+    {
+        String[] names = new String[DeathCause.COUNT];
+        for (DeathCause cause : DeathCause.values()) {
+            names[cause.ordinal()] = cause.name().toLowerCase();
+        }
+        return names;
+    }
+
+    /**
+     * @return (long[]) The number of individuals dead of each cause during the last step.
+     */
+    public long[] getLastStepDeathsByCause()
+    {
+        return lastStepDeathsByCause.clone();
+    }
+
+    /**
+     * @return (long[]) The number of individuals dead of each cause since the last reset.
+     */
+    public synchronized long[] getTotalDeathsByCause()
+    {
+        return totalDeathsByCause.clone();
+    }
+
+    /**
+     * @return (long) The number of individuals born since the last reset.
+     */
+    public long getTotalBirths()
+    {
+        return totalBirths;
+    }
+
+    /**
+     * @return (long) The number of individuals dead since the last reset.
+     */
+    public long getTotalDeaths()
+    {
+        return totalDeaths;
+    }
+
+    /**
+     * @return (long[]) For the recent steps, the number of steps lasting between 2^i and 2^(i+1) nanoseconds, at index i.
+     */
+    public synchronized long[] getRecentStepNanosHistogram()
+    {
+        return histogram.clone();
+    }
+
+    /**
+     * @param percentile (double) The percentile, between 0 and 100.
+     * @return (long) The duration under which the given percentage of the recent steps ran, in nanoseconds, 0 if no step ran.
+     */
+    public long getRecentStepNanosPercentile(double percentile)
+    {
+        long[] recent;
+        synchronized (this) {
+            recent = Arrays.copyOf(recentStepNanos, recentCount);
+        }
+        if (recent.length == 0) {
+            return 0;
+        }
+        Arrays.sort(recent);
+        int rank = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * recent.length);
+        return recent[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Forget everything measured so far.
+     */
+    public synchronized void reset()
+    {
+        for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+            phaseNanos[phase].reset();
+            phaseCounts[phase].reset();
+            previousPhaseNanos[phase] = 0;
+        }
+        stepCount = 0;
+        lastStepNanos = 0;
+        lastStepPhaseNanos = new long[PHASE_NAMES.length];
+        lastStepBirths = 0;
+        lastStepDeaths = 0;
+        totalBirths = 0;
+        totalDeaths = 0;
+        lastStepDeathsByCause = new long[DeathCause.COUNT];
+        Arrays.fill(totalDeathsByCause, 0);
+        recentCount = 0;
+        Arrays.fill(histogram, 0);
+    }
+
+    /**
+     * Register the profiler in the platform's MBean server, replacing the profiler registered before it under the same name.
+     *
+     * @param name (String) The name of the profiled simulation, unique among the simulations of the virtual machine.
+     */
+    public synchronized void register(String name)
+    {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=StepProfiler,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            registeredName = objectName;
+        }
+        catch (JMException e) {
+            new ErrorThrower().throwMessage("The step profiler could not be registered: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove the profiler from the platform's MBean server, if it was registered.
+     */
+    public synchronized void unregister()
+    {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        }
+        catch (JMException e) {
+            // Already unregistered by someone else.
+        }
+        registeredName = null;
+    }
+
+    /**
+     * @return (String) A table of the time spent in each phase since the last reset, and the recent step durations.
+     */
+    public String getSummary()
+    {
+        long[] nanos = getPhaseTotalNanos();
+        long[] counts = getPhaseCounts();
+        long total = 0;
+        for (long phase : nanos) {
+            total += phase;
+        }
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-14s %12s %7s %14s %10s%n", "phase", "total (ms)", "share", "count", "ns/count"));
+        for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+            summary.append(String.format("%-14s %12.1f %6.1f%% %14d %10.0f%n", PHASE_NAMES[phase], nanos[phase] / 1e6,
+                    (total > 0) ? 100.0 * nanos[phase] / total : 0, counts[phase], (double) nanos[phase] / Math.max(1, counts[phase])));
+        }
+        summary.append(String.format("%d steps, %d births, %d deaths; recent steps: median %.3f ms, 90%% %.3f ms, 99%% %.3f ms, max %.3f ms%n",
+                stepCount, totalBirths, totalDeaths, getRecentStepNanosPercentile(50) / 1e6, getRecentStepNanosPercentile(90) / 1e6,
+                getRecentStepNanosPercentile(99) / 1e6, getRecentStepNanosPercentile(100) / 1e6));
+        String[] causes = getDeathCauseNames();
+        long[] deathsByCause = getTotalDeathsByCause();
+        summary.append("deaths by cause:");
+        for (int cause = 0; cause < causes.length; cause++) {
+            summary.append(' ').append(causes[cause]).append(' ').append(deathsByCause[cause]);
+        }
+        summary.append(System.lineSeparator());
+        return summary.toString();
+    }
+
+    /**
+     * @param nanos (long) A duration, in nanoseconds.
+     * @return (int) The bucket of the histogram counting it.
+     */
+    private static int bucketOf(long nanos)
+    {
+        return (nanos <= 1) ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * @param adders (LongAdder[]) Some adders.
+     * @return (long[]) The sum of each adder.
+     */
+    private static long[] sums(LongAdder[] adders)
+    {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * The management interface of a StepProfiler, through which JMX clients such as jconsole or
+ * VisualVM read the timings of a running simulation.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public interface StepProfilerMXBean
+{
+    /**
+     * @return (long) The number of steps profiled since the last reset.
+     */
+    long getStepCount();
+
+    /**
+     * @return (long) The duration of the last step, in nanoseconds.
+     */
+    long getLastStepNanos();
+
+    /**
+     * @return (String[]) The names of the phases, in the order of the other arrays.
+     */
+    String[] getPhaseNames();
+
+    /**
+     * @return (long[]) The time spent in each phase since the last reset, in nanoseconds.
+     */
+    long[] getPhaseTotalNanos();
+
+    /**
+     * @return (long[]) The number of times each phase was run since the last reset (acts for the act phases).
+     */
+    long[] getPhaseCounts();
+
+    /**
+     * @return (long[]) The time spent in each phase during the last step, in nanoseconds.
+     */
+    long[] getLastStepPhaseNanos();
+
+    /**
+     * @return (long) The number of individuals born during the last step.
+     */
+    long getLastStepBirths();
+
+    /**
+     * @return (long) The number of individuals dead during the last step.
+     */
+    long getLastStepDeaths();
+
+    /**
+     * @return (String[]) The names of the causes of death, in the order of the arrays of deaths by cause.
+     */
+    String[] getDeathCauseNames();
+
+    /**
+     * @return (long[]) The number of individuals dead of each cause during the last step.
+     */
+    long[] getLastStepDeathsByCause();
+
+    /**
+     * @return (long[]) The number of individuals dead of each cause since the last reset.
+     */
+    long[] getTotalDeathsByCause();
+
+    /**
+     * @return (long) The number of individuals born since the last reset.
+     */
+    long getTotalBirths();
+
+    /**
+     * @return (long) The number of individuals dead since the last reset.
+     */
+    long getTotalDeaths();
+
+    /**
+     * @return (long[]) For the recent steps, the number of steps lasting between 2^i and 2^(i+1) nanoseconds, at index i.
+     */
+    long[] getRecentStepNanosHistogram();
+
+    /**
+     * @param percentile (double) The percentile, between 0 and 100.
+     * @return (long) The duration under which the given percentage of the recent steps ran, in nanoseconds.
+     */
+    long getRecentStepNanosPercentile(double percentile);
+
+    /**
+     * Forget everything measured so far.
+     */
+    void reset();
+}
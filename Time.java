@@ -1,3 +1,5 @@
+import java.nio.ByteBuffer;
+
 /**
  * Keep track of the time in the simulation
  * and specify if it is day or night
@@ -35,6 +37,31 @@ public class Time
         }
     }
 
+    /**
+     * Recreate the time saved in a checkpoint by writeTo.
+     *
+     * @param buffer (ByteBuffer) The checkpoint, positioned on the time.
+     * @param simStep (SimulationStep) The object of SimulationStep to use for keeping track of the steps.
+     * @return (Time) The time as it was saved.
+     */
+    public static Time readFrom(ByteBuffer buffer, SimulationStep simStep)
+    {
+        Time time = new Time(simStep, buffer.get() != 0);
+        time.currentHour = buffer.getInt();
+        return time;
+    }
+
+    /**
+     * Save the time to a checkpoint: whether it is night (byte) and the hour (int).
+     *
+     * @param buffer (ByteBuffer) The checkpoint.
+     */
+    public void writeTo(ByteBuffer buffer)
+    {
+        buffer.put((byte) (isNight ? 1 : 0));
+        buffer.putInt(currentHour);
+    }
+
     /**
      * @return (boolean) true if night, false otherwise.
      */
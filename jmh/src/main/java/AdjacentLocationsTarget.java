@@ -0,0 +1,28 @@
+import benchmarks.CoreTarget;
+
+/**
+ * Field.adjacentLocations on one cell, the next cell of the field at each run.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class AdjacentLocationsTarget implements CoreTarget
+{
+    // The field, holding prey and plants.
+    private Field field;
+    // The cell of the last run.
+    private int cell;
+
+    public void setUp(String grid, double density)
+    {
+        field = CoreTargets.createField(grid);
+        CoreTargets.populate(new ObjectEngine(field, CoreTargets.SEED), field, density, CoreTargets.RHINO, CoreTargets.PLANT);
+        cell = 0;
+    }
+
+    public long run()
+    {
+        cell = (cell + 1 < field.getCellCount()) ? cell + 1 : 0;
+        return field.adjacentLocations(field.getLocation(cell)).size();
+    }
+}
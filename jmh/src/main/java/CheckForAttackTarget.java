@@ -0,0 +1,34 @@
+import benchmarks.CoreTarget;
+import java.util.List;
+
+/**
+ * Predator.checkForAttack once for each predator of a field holding two species of predators.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class CheckForAttackTarget implements CoreTarget
+{
+    // The predators of the field, in the order of their cells.
+    private List<Animal> predators;
+
+    public void setUp(String grid, double density)
+    {
+        Field field = CoreTargets.createField(grid);
+        CoreTargets.populate(new ObjectEngine(field, CoreTargets.SEED), field, density, CoreTargets.TIGER, CoreTargets.CROCODILE);
+        predators = CoreTargets.animalsOf(field);
+    }
+
+    public long run()
+    {
+        long alive = 0;
+        for (Animal animal : predators) {
+            if (animal.isAlive()) {
+                Predator predator = (Predator) animal;
+                predator.checkForAttack(predator.scanNeighbourhood());
+                alive += predator.isAlive() ? 1 : 0;
+            }
+        }
+        return alive;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The state shared by the operations measured by the benchmarks: the species they use and the
+ * way fields are filled with them.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class CoreTargets
+{
+    // The seed of the engines and of the filling of the fields.
+    static final long SEED = 1111;
+
+    // Species used by the benchmarks, with the values of animals.csv and plants.csv.
+    static final SpeciesDefinition TIGER = new SpeciesDefinition(0, "tiger", true, 40, 15, 120, 0.85, 20, 2, 4, false, false, 50);
+    static final SpeciesDefinition CROCODILE = new SpeciesDefinition(1, "crocodile", true, 40, 10, 85, 0.85, 20, 2, 4, false, false, 35);
+    static final SpeciesDefinition RHINO = new SpeciesDefinition(2, "rhino", false, 40, 10, 140, 0.85, 20, 2, 1, false, false, 0);
+    static final SpeciesDefinition PLANT = new SpeciesDefinition(3, "plant", 50, -10, 10, 0.002, 4);
+
+    /**
+     * Create an empty field.
+     *
+     * @param grid (String) The size of the field, as depth x width, for instance "80x120".
+     * @return (Field) The field.
+     */
+    static Field createField(String grid)
+    {
+        int separator = grid.indexOf('x');
+        return new Field(Integer.parseInt(grid.substring(0, separator)), Integer.parseInt(grid.substring(separator + 1)));
+    }
+
+    /**
+     * Fill the cells of a field at random with individuals of the given species, through an engine.
+     * The same arguments always give the same individuals.
+     *
+     * @param engine (SimulationEngine) The engine receiving the individuals.
+     * @param field (Field) The field of the engine.
+     * @param density (double) The share of the cells holding an individual.
+     * @param definitions (SpeciesDefinition[]) The species, picked in turn.
+     */
+    static void populate(SimulationEngine engine, Field field, double density, SpeciesDefinition... definitions)
+    {
+        Randomizer.beginStream(SEED, 0, Randomizer.INITIALIZATION_STREAM);
+        Random rand = Randomizer.getRandom();
+        int next = 0;
+        for (int cell = 0; cell < field.getCellCount(); cell++) {
+            if (rand.nextDouble() < density) {
+                engine.spawn(definitions[next], field.getLocation(cell), true);
+                next = (next + 1) % definitions.length;
+            }
+        }
+    }
+
+    /**
+     * Collect the living animals of a field.
+     *
+     * @param field (Field) The field.
+     * @return (List<Animal>) The animals, in the order of their cells.
+     */
+    static List<Animal> animalsOf(Field field)
+    {
+        List<Animal> animals = new ArrayList<>();
+        for (int cell = 0; cell < field.getCellCount(); cell++) {
+            if (field.getObjectAt(cell) instanceof Animal) {
+                animals.add((Animal) field.getObjectAt(cell));
+            }
+        }
+        return animals;
+    }
+}
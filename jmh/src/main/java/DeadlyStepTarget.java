@@ -0,0 +1,37 @@
+import benchmarks.CoreTarget;
+
+/**
+ * One night step of an ObjectEngine at a temperature no species can stand: about a fifth of the
+ * animals die of it, and none moves or gives birth, so the step is mostly the removal of the dead.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class DeadlyStepTarget implements CoreTarget
+{
+    // A temperature out of the range of every species.
+    private static final int DEADLY_TEMPERATURE = 200;
+
+    // The engine of the field, holding prey only.
+    private SimulationEngine engine;
+
+    public void setUp(String grid, double density)
+    {
+        Field field = CoreTargets.createField(grid);
+        engine = new ObjectEngine(field, CoreTargets.SEED);
+        // The individuals are spread evenly over the field.
+        int population = (int) Math.round(density * field.getCellCount());
+        Randomizer.beginStream(CoreTargets.SEED, 0, Randomizer.INITIALIZATION_STREAM);
+        for (int i = 0; i < population; i++) {
+            int cell = (int) ((long) i * field.getCellCount() / population);
+            engine.spawn(CoreTargets.RHINO, field.getLocation(cell), true);
+        }
+    }
+
+    public long run()
+    {
+        int population = engine.getPopulationSize();
+        engine.step(1, true, true, DEADLY_TEMPERATURE, false);
+        return population - engine.getPopulationSize();
+    }
+}
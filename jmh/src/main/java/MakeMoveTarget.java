@@ -0,0 +1,35 @@
+import benchmarks.CoreTarget;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Animal.makeMove once for each prey of a field shared with plants.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class MakeMoveTarget implements CoreTarget
+{
+    // The prey of the field, in the order of their cells.
+    private List<Animal> animals;
+    // Receives the newborns of the moves.
+    private List<Species> newborns;
+
+    public void setUp(String grid, double density)
+    {
+        Field field = CoreTargets.createField(grid);
+        CoreTargets.populate(new ObjectEngine(field, CoreTargets.SEED), field, density, CoreTargets.RHINO, CoreTargets.PLANT);
+        animals = CoreTargets.animalsOf(field);
+        newborns = new ArrayList<>();
+    }
+
+    public long run()
+    {
+        for (Animal animal : animals) {
+            if (animal.isAlive()) {
+                animal.makeMove(newborns);
+            }
+        }
+        return newborns.size();
+    }
+}
@@ -0,0 +1,55 @@
+import benchmarks.CoreTarget;
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SimulatorView.showStatus without a display: the StatusPublisher of the view following the
+ * changes of one step and publishing a snapshot, as it does when a frame is due.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class ShowStatusTarget implements CoreTarget
+{
+    // The field, holding predators, prey and plants.
+    private Field field;
+    // The engine of the field.
+    private SimulationEngine engine;
+    // The part of the view run on the simulation thread.
+    private StatusPublisher publisher;
+    // The last step run.
+    private int step;
+
+    public void setUp(String grid, double density)
+    {
+        field = CoreTargets.createField(grid);
+        engine = new ObjectEngine(field, CoreTargets.SEED);
+        CoreTargets.populate(engine, field, density, CoreTargets.TIGER, CoreTargets.RHINO, CoreTargets.PLANT, CoreTargets.PLANT);
+        Map<String, Color> colors = new LinkedHashMap<>();
+        colors.put(CoreTargets.TIGER.getName(), Color.orange);
+        colors.put(CoreTargets.RHINO.getName(), Color.blue);
+        colors.put(CoreTargets.PLANT.getName(), Color.green);
+        // Publish every status, as if each one was due for a frame.
+        publisher = new StatusPublisher(colors, new FieldColors(colors, Color.white, Color.gray), 0);
+        step = 0;
+        publisher.showStatus(step, "", "spring", 25, field);
+        publisher.takeSnapshot();
+    }
+
+    /**
+     * Run one step of the engine, leaving the blocks it changed for run to follow.
+     */
+    public void prepare()
+    {
+        field.resetDirtyBlocks();
+        step++;
+        engine.step(step, true, false, 25, false);
+    }
+
+    public long run()
+    {
+        publisher.showStatus(step, "", "spring", 25, field);
+        return publisher.takeSnapshot().cellColors.length;
+    }
+}
@@ -0,0 +1,32 @@
+import benchmarks.CoreTarget;
+
+/**
+ * Simulator.simulateOneStep with predators, prey and plants in the savanna, observed by a silent observer.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public class SimulateOneStepTarget implements CoreTarget
+{
+    // The simulation.
+    private Simulator simulator;
+    // The engine of the simulation.
+    private SimulationEngine engine;
+
+    public void setUp(String grid, double density)
+    {
+        Field field = CoreTargets.createField(grid);
+        engine = new ObjectEngine(field, CoreTargets.SEED);
+        CoreTargets.populate(engine, field, density, CoreTargets.TIGER, CoreTargets.RHINO, CoreTargets.PLANT, CoreTargets.PLANT);
+        SimulationStep step = new SimulationStep();
+        // The temperatures of the savanna in habitats.csv.
+        Habitat habitat = new Habitat(step, ClimateScenarios.SCENARIO1, new int[] {25, 5}, new int[] {30, 5}, new int[] {20, 5}, new int[] {15, 5});
+        simulator = new Simulator(habitat, new Time(step, false), engine, field, step, new ConsoleObserver(System.out, 0), CoreTargets.SEED);
+    }
+
+    public long run()
+    {
+        simulator.simulateOneStep();
+        return engine.getPopulationSize();
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+/**
+ * An operation of the simulation core measured by a benchmark, on a field of a given size filled
+ * with individuals at a given density.
+ *
+ * The classes of the simulation are in the default package, which JMH benchmarks can not be in
+ * and can not import. The operations are therefore implemented by classes of the default package
+ * of this module, loaded by name when the benchmark is set up.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+public interface CoreTarget
+{
+    /**
+     * Build the field and its individuals. Everything is seeded, so the same arguments always
+     * build the same state.
+     *
+     * @param grid (String) The size of the field, as depth x width, for instance "80x120".
+     * @param density (double) The share of the cells holding an individual.
+     */
+    void setUp(String grid, double density);
+
+    /**
+     * Bring the state back to where an invocation of run expects it. Not timed.
+     */
+    default void prepare()
+    {
+    }
+
+    /**
+     * Run the measured operation once.
+     *
+     * @return (long) A value depending on the work done, to be consumed by the benchmark.
+     */
+    long run();
+
+    /**
+     * Create the operation implemented by a class of the default package.
+     *
+     * @param className (String) The name of the class, which has a public constructor without arguments.
+     * @return (CoreTarget) A new instance of the class.
+     */
+    static CoreTarget load(String className)
+    {
+        try {
+            return (CoreTarget) Class.forName(className).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can not create " + className, e);
+        }
+    }
+}
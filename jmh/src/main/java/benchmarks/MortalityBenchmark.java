@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ObjectEngine.step when a large part of the population dies at once, as in an arctic winter.
+ * The population fills half of a square field, rebuilt before each invocation. The time per
+ * individual should stay flat as the population grows.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MortalityBenchmark
+{
+    // The share of the field's cells holding an individual.
+    private static final double DENSITY = 0.5;
+
+    // The number of individuals on the field.
+    @Param({"16000", "64000", "256000"})
+    public int population;
+
+    // The measured operation.
+    private final CoreTarget target = CoreTarget.load("DeadlyStepTarget");
+
+    @Setup(Level.Invocation)
+    public void setUp()
+    {
+        int side = (int) Math.ceil(Math.sqrt(population / DENSITY));
+        target.setUp(side + "x" + side, (double) population / ((long) side * side));
+    }
+
+    @Benchmark
+    public long deadlyStep()
+    {
+        return target.run();
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Predator.checkForAttack, once for every predator of a field holding two species of predators.
+ * The field is rebuilt before each invocation, as attacks kill predators.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PredatorBenchmark
+{
+    // The size of the field, as depth x width.
+    @Param({"80x120", "160x240", "320x480"})
+    public String grid;
+    // The share of the cells holding an individual.
+    @Param({"0.1", "0.3", "0.6"})
+    public double density;
+
+    // The measured operation.
+    private final CoreTarget target = CoreTarget.load("CheckForAttackTarget");
+
+    @Setup(Level.Invocation)
+    public void setUp()
+    {
+        target.setUp(grid, density);
+    }
+
+    @Benchmark
+    public long checkForAttack()
+    {
+        return target.run();
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimulatorView.showStatus in headless mode: the StatusPublisher the view hands each status to,
+ * following the changes of one step of the engine and publishing a snapshot of the field. The
+ * engine step before each invocation is not timed.
+ *
+ * @author Ali Alkhars (K20055566) and Anton Sirgue (K21018741)
+ * @version 2022.03.02
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SimulatorViewBenchmark
+{
+    // The size of the field, as depth x width.
+    @Param({"80x120", "160x240", "320x480"})
+    public String grid;
+    // The share of the cells holding an individual.
+    @Param({"0.1", "0.3", "0.6"})
+    public double density;
+
+    // The measured operation.
+    private final CoreTarget target = CoreTarget.load("ShowStatusTarget");
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        target.setUp(grid, density);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare()
+    {
+        target.prepare();
+    }
+
+    @Benchmark
+    public long showStatus()
+    {
+        return target.run();
+    }
+}